@@ -0,0 +1,88 @@
+package org.app.benchmarks;
+
+import org.app.services.IndiceFechasIngreso;
+import org.app.utils.LocalDateTimeUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el índice por meses de IndiceFechasIngreso contra recorrer todas las fechas de ingreso
+ * para contar y listar los productos de las ventanas recientes.
+ * Las fechas se generan como texto 'yyyy-MM-dd' y se cargan con el parseo masivo de LocalDateTimeUtils.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class IndiceFechasIngresoBenchmark {
+    // Cada fila tiene el formato "yyyy-MM-dd\n"
+    private static final int LARGO_FILA = 11;
+    // Las fechas se reparten en los últimos tres años
+    private static final int DIAS_DE_HISTORIA = 3 * 365;
+    private static final int SHARDS = 4;
+
+    @Param({"10000000"})
+    private int filas;
+
+    @Param({"7", "30", "90"})
+    private int dias;
+
+    private long[] epochDias;
+    private IndiceFechasIngreso indice;
+    private LocalDate desde;
+    private LocalDate hasta;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDate hoy = LocalDate.now();
+        byte[] buffer = new byte[filas * LARGO_FILA];
+        int[] offsets = new int[filas];
+        int[] shards = new int[filas];
+        int[] ids = new int[filas];
+        for (int i = 0; i < filas; i++) {
+            byte[] fecha = hoy.minusDays(random.nextInt(DIAS_DE_HISTORIA)).toString().getBytes(StandardCharsets.US_ASCII);
+            offsets[i] = i * LARGO_FILA;
+            System.arraycopy(fecha, 0, buffer, offsets[i], fecha.length);
+            buffer[offsets[i] + LARGO_FILA - 1] = '\n';
+            shards[i] = i % SHARDS;
+            ids[i] = i / SHARDS + 1;
+        }
+        epochDias = new long[filas];
+        LocalDateTimeUtils.parsearEpochDias(buffer, offsets, filas, epochDias);
+        indice = IndiceFechasIngreso.desdeDias(shards, ids, epochDias, filas);
+        hasta = hoy;
+        desde = hoy.minusDays(dias - 1);
+    }
+
+    @Benchmark
+    public int contarConIndice() {
+        return indice.contar(desde, hasta);
+    }
+
+    @Benchmark
+    public int contarRecorriendo() {
+        long primero = desde.toEpochDay();
+        long ultimo = hasta.toEpochDay();
+        int cantidad = 0;
+        for (long dia : epochDias) {
+            if (dia >= primero && dia <= ultimo) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+
+    @Benchmark
+    public Map<Integer, List<Integer>> idsConIndice() {
+        return indice.idsPorShardEntre(desde, hasta);
+    }
+}
@@ -0,0 +1,93 @@
+package org.app.benchmarks;
+
+import org.app.utils.LocalDateTimeUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara los métodos de LocalDateTimeUtils basados en String y DateTimeFormatter
+ * contra el parseo masivo sobre buffers de caracteres y bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalDateTimeUtilsBenchmark {
+    // Cada fila tiene el formato "yyyy-MM-dd HH:mm:ss\n"
+    private static final int LARGO_FILA = 20;
+
+    @Param({"100000"})
+    private int filas;
+
+    private String[] fechas;
+    private String[] horas;
+    private char[] bufferChars;
+    private byte[] bufferBytes;
+    private int[] offsetsFecha;
+    private int[] offsetsHora;
+    private long[] destino;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        fechas = new String[filas];
+        horas = new String[filas];
+        offsetsFecha = new int[filas];
+        offsetsHora = new int[filas];
+        destino = new long[filas];
+        StringBuilder sb = new StringBuilder(filas * LARGO_FILA);
+        for (int i = 0; i < filas; i++) {
+            LocalDate fecha = LocalDate.of(2000, 1, 1).plusDays(random.nextInt(9000));
+            fechas[i] = fecha.toString();
+            horas[i] = String.format("%02d:%02d:%02d", random.nextInt(24), random.nextInt(60), random.nextInt(60));
+            offsetsFecha[i] = i * LARGO_FILA;
+            offsetsHora[i] = i * LARGO_FILA + 11;
+            sb.append(fechas[i]).append(' ').append(horas[i]).append('\n');
+        }
+        bufferChars = sb.toString().toCharArray();
+        bufferBytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public void fechaConFormatter(Blackhole bh) {
+        for (int i = 0; i < filas; i++) {
+            bh.consume(LocalDateTimeUtils.crearLocalDateTimeDesdeFecha(fechas[i]));
+        }
+    }
+
+    @Benchmark
+    public void fechaYHoraConFormatter(Blackhole bh) {
+        for (int i = 0; i < filas; i++) {
+            LocalDateTime fechaHora = LocalDateTimeUtils.crearLocalDateTimeDesdeFechaYHora(fechas[i], horas[i]);
+            bh.consume(fechaHora);
+        }
+    }
+
+    @Benchmark
+    public int epochDiasChars() {
+        return LocalDateTimeUtils.parsearEpochDias(bufferChars, offsetsFecha, filas, destino);
+    }
+
+    @Benchmark
+    public int epochDiasBytes() {
+        return LocalDateTimeUtils.parsearEpochDias(bufferBytes, offsetsFecha, filas, destino);
+    }
+
+    @Benchmark
+    public int epochSegundosChars() {
+        return LocalDateTimeUtils.parsearEpochSegundos(bufferChars, offsetsFecha, offsetsHora, filas, destino);
+    }
+
+    @Benchmark
+    public int epochSegundosBytes() {
+        return LocalDateTimeUtils.parsearEpochSegundos(bufferBytes, offsetsFecha, offsetsHora, filas, destino);
+    }
+}
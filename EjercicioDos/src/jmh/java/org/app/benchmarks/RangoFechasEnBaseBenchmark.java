@@ -0,0 +1,162 @@
+package org.app.benchmarks;
+
+import org.app.dto.ProductoDTO;
+import org.app.services.EjecucionEnShards;
+import org.app.services.IndiceFechasIngreso;
+import org.app.services.Logica;
+import org.app.utils.EstrategiaShard;
+import org.app.utils.HibernateUtil;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara obtenerProductosPorRangoFechas contra la base, con y sin idx_productos_fecha_ingreso,
+ * con IndiceFechasIngreso, que ubica los ids en memoria y trae los productos por clave primaria.
+ *
+ * Necesita el MySQL de hibernate.cfg.xml: trabaja sobre la base TiendaBenchmark, que se crea si no existe
+ * y se vuelve a cargar cuando no tiene la cantidad de filas pedida. El índice se quita o se crea según
+ * el parámetro conIndiceEnBase y al terminar se deja creado. Los benchmarks en memoria no dependen
+ * de ese parámetro; se miden igual en las dos variantes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class RangoFechasEnBaseBenchmark {
+    private static final String URL_BENCHMARK =
+            "jdbc:mysql://localhost:3306/TiendaBenchmark?createDatabaseIfNotExist=true&rewriteBatchedStatements=true";
+    private static final String INDICE = "idx_productos_fecha_ingreso";
+    // Las fechas se reparten en los últimos tres años
+    private static final int DIAS_DE_HISTORIA = 3 * 365;
+    private static final int TAMANIO_LOTE = 5000;
+
+    @Param({"1000000"})
+    private int filas;
+
+    @Param({"7", "30", "90"})
+    private int dias;
+
+    @Param({"true", "false"})
+    private boolean conIndiceEnBase;
+
+    private final Logica logica = Logica.getInstance();
+    private IndiceFechasIngreso indice;
+    private LocalDate desde;
+    private LocalDate hasta;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HibernateUtil.configurarShards(EstrategiaShard.porHash(), URL_BENCHMARK);
+        LocalDate hoy = LocalDate.now();
+        EjecucionEnShards.enShard(0, session -> {
+            long existentes = session.createQuery("select count(p) from Producto p", Long.class).getSingleResult();
+            if (existentes != filas) {
+                cargar(session, hoy);
+            }
+            if (tieneIndice(session) != conIndiceEnBase) {
+                ejecutar(session, conIndiceEnBase
+                        ? "CREATE INDEX " + INDICE + " ON Productos (fecha_ingreso)"
+                        : "DROP INDEX " + INDICE + " ON Productos");
+            }
+            // Estadísticas frescas para que el optimizador elija entre el índice y el recorrido completo
+            ejecutar(session, "ANALYZE TABLE Productos");
+            return null;
+        });
+        indice = IndiceFechasIngreso.construir();
+        hasta = hoy;
+        desde = hoy.minusDays(dias - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        EjecucionEnShards.enShard(0, session -> {
+            if (!tieneIndice(session)) {
+                ejecutar(session, "CREATE INDEX " + INDICE + " ON Productos (fecha_ingreso)");
+            }
+            return null;
+        });
+        HibernateUtil.restablecerShards();
+    }
+
+    @Benchmark
+    public List<ProductoDTO> productosEnBase() {
+        return logica.obtenerProductosPorRangoFechas(desde, hasta);
+    }
+
+    @Benchmark
+    public List<ProductoDTO> productosConIndiceEnMemoria() {
+        return indice.obtenerProductosEntre(desde, hasta);
+    }
+
+    @Benchmark
+    public long contarEnBase() {
+        return EjecucionEnShards.enShard(0, session -> session
+                .createQuery("select count(p) from Producto p where p.fechaIngreso between :desde and :hasta", Long.class)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .getSingleResult());
+    }
+
+    @Benchmark
+    public int contarConIndiceEnMemoria() {
+        return indice.contar(desde, hasta);
+    }
+
+    private void cargar(Session session, LocalDate hoy) {
+        session.doWork(conexion -> {
+            boolean autoCommit = conexion.getAutoCommit();
+            conexion.setAutoCommit(false);
+            try (Statement statement = conexion.createStatement()) {
+                statement.executeUpdate("DELETE FROM Productos");
+                statement.executeUpdate("DELETE FROM Categorias");
+                statement.executeUpdate("INSERT INTO Categorias (id, nombre) VALUES (1, 'Benchmark')");
+            }
+            Random random = new Random(42);
+            try (PreparedStatement insert = conexion.prepareStatement(
+                    "INSERT INTO Productos (id, nombre, categoria_id, precio, stock, fecha_ingreso) VALUES (?, ?, 1, ?, ?, ?)")) {
+                for (int i = 1; i <= filas; i++) {
+                    insert.setInt(1, i);
+                    insert.setString(2, "Producto " + i);
+                    insert.setBigDecimal(3, BigDecimal.valueOf(random.nextInt(100000), 2));
+                    insert.setInt(4, random.nextInt(500));
+                    insert.setDate(5, Date.valueOf(hoy.minusDays(random.nextInt(DIAS_DE_HISTORIA))));
+                    insert.addBatch();
+                    if (i % TAMANIO_LOTE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            conexion.commit();
+            conexion.setAutoCommit(autoCommit);
+        });
+    }
+
+    private static boolean tieneIndice(Session session) {
+        Number cantidad = session.createNativeQuery(
+                        "SELECT COUNT(*) FROM information_schema.statistics"
+                        + " WHERE table_schema = DATABASE() AND table_name = 'Productos' AND index_name = :indice", Number.class)
+                .setParameter("indice", INDICE)
+                .getSingleResult();
+        return cantidad.intValue() > 0;
+    }
+
+    private static void ejecutar(Session session, String sql) {
+        session.doWork(conexion -> {
+            try (Statement statement = conexion.createStatement()) {
+                statement.execute(sql);
+            }
+        });
+    }
+}
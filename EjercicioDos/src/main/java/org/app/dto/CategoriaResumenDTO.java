@@ -0,0 +1,58 @@
+package org.app.dto;
+
+import org.app.models.Categoria;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CategoriaResumenDTO {
+    private Integer id;
+    private String nombre;
+    private long cantidadProductos;
+    private List<ProductoDTO> productos = new ArrayList<>();
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public long getCantidadProductos() {
+        return cantidadProductos;
+    }
+
+    public void setCantidadProductos(long cantidadProductos) {
+        this.cantidadProductos = cantidadProductos;
+    }
+
+    public List<ProductoDTO> getProductos() {
+        return productos;
+    }
+
+    public void setProductos(List<ProductoDTO> productos) {
+        this.productos = productos;
+    }
+
+    // Static factory method to convert Entity to DTO
+    public static CategoriaResumenDTO fromEntity(Categoria categoria, long cantidadProductos) {
+        if (categoria == null) {
+            return null;
+        }
+
+        CategoriaResumenDTO dto = new CategoriaResumenDTO();
+        dto.setId(categoria.getId());
+        dto.setNombre(categoria.getNombre());
+        dto.setCantidadProductos(cantidadProductos);
+        return dto;
+    }
+}
@@ -3,14 +3,16 @@ package org.app.dto;
 import org.app.models.Producto;
 import org.app.models.Categoria;
 import java.math.BigDecimal;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 public class ProductoDTO {
     private Integer id;
     private String nombre;
     private BigDecimal precio;
     private Integer stock;
-    private Date fechaIngreso;
+    private LocalDate fechaIngreso;
+    private LocalDateTime fechaModificacion;
     private CategoriaDTO categoria;
 
     // Getters and Setters
@@ -46,14 +48,22 @@ public class ProductoDTO {
         this.stock = stock;
     }
 
-    public Date getFechaIngreso() {
+    public LocalDate getFechaIngreso() {
         return fechaIngreso;
     }
 
-    public void setFechaIngreso(Date fechaIngreso) {
+    public void setFechaIngreso(LocalDate fechaIngreso) {
         this.fechaIngreso = fechaIngreso;
     }
 
+    public LocalDateTime getFechaModificacion() {
+        return fechaModificacion;
+    }
+
+    public void setFechaModificacion(LocalDateTime fechaModificacion) {
+        this.fechaModificacion = fechaModificacion;
+    }
+
     public CategoriaDTO getCategoria() {
         return categoria;
     }
@@ -74,6 +84,7 @@ public class ProductoDTO {
         dto.setPrecio(producto.getPrecio());
         dto.setStock(producto.getStock());
         dto.setFechaIngreso(producto.getFechaIngreso());
+        dto.setFechaModificacion(producto.getFechaModificacion());
         dto.setCategoria(CategoriaDTO.fromEntity(producto.getCategoria()));
         return dto;
     }
@@ -0,0 +1,84 @@
+package org.app.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ResultadoBusquedaDTO {
+    private List<ProductoDTO> productos = new ArrayList<>();
+    private long total;
+    private int pagina;
+    private int tamanioPagina;
+
+    // Facetas: cantidad de productos que cumplen el filtro en cada grupo
+    private Map<String, Long> porCategoria = new LinkedHashMap<>();
+    private Map<String, Long> porRangoPrecio = new LinkedHashMap<>();
+    private Map<String, Long> porRangoStock = new LinkedHashMap<>();
+    private Map<String, Long> porMesIngreso = new LinkedHashMap<>();
+
+    // Getters and Setters
+    public List<ProductoDTO> getProductos() {
+        return productos;
+    }
+
+    public void setProductos(List<ProductoDTO> productos) {
+        this.productos = productos;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getPagina() {
+        return pagina;
+    }
+
+    public void setPagina(int pagina) {
+        this.pagina = pagina;
+    }
+
+    public int getTamanioPagina() {
+        return tamanioPagina;
+    }
+
+    public void setTamanioPagina(int tamanioPagina) {
+        this.tamanioPagina = tamanioPagina;
+    }
+
+    public Map<String, Long> getPorCategoria() {
+        return porCategoria;
+    }
+
+    public void setPorCategoria(Map<String, Long> porCategoria) {
+        this.porCategoria = porCategoria;
+    }
+
+    public Map<String, Long> getPorRangoPrecio() {
+        return porRangoPrecio;
+    }
+
+    public void setPorRangoPrecio(Map<String, Long> porRangoPrecio) {
+        this.porRangoPrecio = porRangoPrecio;
+    }
+
+    public Map<String, Long> getPorRangoStock() {
+        return porRangoStock;
+    }
+
+    public void setPorRangoStock(Map<String, Long> porRangoStock) {
+        this.porRangoStock = porRangoStock;
+    }
+
+    public Map<String, Long> getPorMesIngreso() {
+        return porMesIngreso;
+    }
+
+    public void setPorMesIngreso(Map<String, Long> porMesIngreso) {
+        this.porMesIngreso = porMesIngreso;
+    }
+}
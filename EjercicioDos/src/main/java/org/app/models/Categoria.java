@@ -1,11 +1,14 @@
 package org.app.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.util.List;
 
 @Entity
 @Table(name = "Categorias")
 public class Categoria {
+    // Con varios shards el id lo asigna el shard 0 y se replica en los demás (ver EscriturasCatalogo)
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -13,7 +16,9 @@ public class Categoria {
     @Column(length = 50)
     private String nombre;
 
+    // Al recorrer varias categorías, todas las colecciones se cargan en una sola consulta
     @OneToMany(mappedBy = "categoria")
+    @Fetch(FetchMode.SUBSELECT)
     private List<Producto> productos;
 
     // Constructors
@@ -1,14 +1,29 @@
 package org.app.models;
 
 import jakarta.persistence.*;
+import org.app.utils.GeneradorIdProducto;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "Productos")
+@Table(name = "Productos", indexes = {
+        @Index(name = "idx_productos_categoria_precio", columnList = "categoria_id, precio DESC"),
+        @Index(name = "idx_productos_fecha_modificacion", columnList = "fecha_modificacion"),
+        @Index(name = "idx_productos_fecha_ingreso", columnList = "fecha_ingreso")
+})
 public class Producto {
+    // Únicos entre shards: el resto del id por la cantidad de shards es el shard del producto
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "id_producto")
+    @GenericGenerator(name = "id_producto", type = GeneradorIdProducto.class, parameters = {
+            @Parameter(name = "sequence_name", value = "productos_seq"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private Integer id;
 
     @Column(length = 50)
@@ -24,13 +39,18 @@ public class Producto {
     private Integer stock;
 
     @Column(name = "fecha_ingreso")
-    @Temporal(TemporalType.DATE)
-    private Date fechaIngreso;
+    private LocalDate fechaIngreso;
+
+    // Se actualiza en cada INSERT/UPDATE con el reloj de la base, el mismo para todos los nodos;
+    // sirve de marca de agua para ponerse al día desde un snapshot
+    @UpdateTimestamp(source = SourceType.DB)
+    @Column(name = "fecha_modificacion")
+    private LocalDateTime fechaModificacion;
 
     // Constructors
     public Producto() {}
 
-    public Producto(String nombre, Categoria categoria, BigDecimal precio, Integer stock, Date fechaIngreso) {
+    public Producto(String nombre, Categoria categoria, BigDecimal precio, Integer stock, LocalDate fechaIngreso) {
         this.nombre = nombre;
         this.categoria = categoria;
         this.precio = precio;
@@ -79,11 +99,19 @@ public class Producto {
         this.stock = stock;
     }
 
-    public Date getFechaIngreso() {
+    public LocalDate getFechaIngreso() {
         return fechaIngreso;
     }
 
-    public void setFechaIngreso(Date fechaIngreso) {
+    public void setFechaIngreso(LocalDate fechaIngreso) {
         this.fechaIngreso = fechaIngreso;
     }
+
+    public LocalDateTime getFechaModificacion() {
+        return fechaModificacion;
+    }
+
+    public void setFechaModificacion(LocalDateTime fechaModificacion) {
+        this.fechaModificacion = fechaModificacion;
+    }
 } 
\ No newline at end of file
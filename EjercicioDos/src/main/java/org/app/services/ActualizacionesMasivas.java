@@ -0,0 +1,134 @@
+package org.app.services;
+
+import org.app.models.Producto;
+import org.app.utils.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Actualizaciones de precio y stock resueltas con un único UPDATE por conjunto de filas,
+ * sin cargar cada Producto en la sesión.
+ * Como los UPDATE masivos no disparan @UpdateTimestamp, cada operación asigna fecha_modificacion
+ * con el reloj de la base (como @UpdateTimestamp) para que los snapshots del catálogo detecten el cambio.
+ * Con varios shards cada uno se actualiza en su propia transacción.
+ */
+public class ActualizacionesMasivas {
+    private static ActualizacionesMasivas instance;
+
+    // Cantidad de filas por lote al aplicar una lista de precios
+    private static final int TAMANIO_LOTE = 500;
+
+    private ActualizacionesMasivas() {
+    }
+
+    public static ActualizacionesMasivas getInstance() {
+        if (instance == null) {
+            instance = new ActualizacionesMasivas();
+        }
+        return instance;
+    }
+
+    /**
+     * Aumenta (o con un porcentaje negativo, reduce) los precios de una categoría,
+     * redondeando a dos decimales.
+     *
+     * @param porcentaje Debe ser mayor a -100, para no dejar precios en cero o negativos.
+     * @return La cantidad de productos actualizados.
+     */
+    public int aumentarPreciosPorCategoria(Integer categoriaId, BigDecimal porcentaje) {
+        if (porcentaje.compareTo(new BigDecimal("-100")) <= 0) {
+            throw new IllegalArgumentException("El porcentaje debe ser mayor a -100");
+        }
+        BigDecimal factor = BigDecimal.ONE.add(porcentaje.movePointLeft(2));
+        int shard = HibernateUtil.getShardDeCategoria(categoriaId);
+        return EjecucionEnShards.enShard(shard, session -> enTransaccion(session, s ->
+                s.createMutationQuery("update Producto p"
+                                    + " set p.precio = round(p.precio * :factor, 2), p.fechaModificacion = local_datetime"
+                                    + " where p.categoria.id = :categoriaId")
+                 .setParameter("factor", factor)
+                 .setParameter("categoriaId", categoriaId)
+                 .executeUpdate()));
+    }
+
+    /**
+     * Pone en cero el stock de los productos ingresados antes de la fecha indicada.
+     *
+     * @return La cantidad de productos actualizados.
+     */
+    public int ponerStockEnCeroIngresadosAntesDe(LocalDate fecha) {
+        return sumar(EjecucionEnShards.enTodos(session -> enTransaccion(session, s ->
+                s.createMutationQuery("update Producto p"
+                                    + " set p.stock = 0, p.fechaModificacion = local_datetime"
+                                    + " where p.fechaIngreso < :fecha and p.stock <> 0")
+                 .setParameter("fecha", fecha)
+                 .executeUpdate())));
+    }
+
+    /**
+     * Aplica una lista de precios (id de producto a nuevo precio) con UPDATE por lotes de JDBC.
+     * Cada entrada va sólo al shard del producto, que se deduce de su id.
+     *
+     * @return La cantidad de productos actualizados.
+     */
+    public int aplicarListaDePrecios(Map<Integer, BigDecimal> precios) {
+        if (precios.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, List<Map.Entry<Integer, BigDecimal>>> porShard = new HashMap<>();
+        for (Map.Entry<Integer, BigDecimal> entrada : precios.entrySet()) {
+            porShard.computeIfAbsent(HibernateUtil.getShardDeProducto(entrada.getKey()), s -> new ArrayList<>()).add(entrada);
+        }
+        return sumar(EjecucionEnShards.enTodos((shard, session) -> {
+            List<Map.Entry<Integer, BigDecimal>> entradas = porShard.getOrDefault(shard, List.of());
+            return entradas.isEmpty() ? 0 : enTransaccion(session, s -> actualizarPrecios(s, entradas));
+        }));
+    }
+
+    private static int actualizarPrecios(Session session, List<Map.Entry<Integer, BigDecimal>> entradas) {
+        return session.doReturningWork(conexion -> {
+            int actualizados = 0;
+            try (PreparedStatement update = conexion.prepareStatement(
+                    "UPDATE Productos SET precio = ?, fecha_modificacion = LOCALTIMESTAMP WHERE id = ?")) {
+                for (int i = 0; i < entradas.size(); i++) {
+                    update.setBigDecimal(1, entradas.get(i).getValue());
+                    update.setInt(2, entradas.get(i).getKey());
+                    update.addBatch();
+                    if ((i + 1) % TAMANIO_LOTE == 0 || i == entradas.size() - 1) {
+                        for (int filas : update.executeBatch()) {
+                            // SUCCESS_NO_INFO (-2) cuenta como una fila
+                            actualizados += filas == PreparedStatement.SUCCESS_NO_INFO ? 1 : filas;
+                        }
+                    }
+                }
+            }
+            return actualizados;
+        });
+    }
+
+    private static int enTransaccion(Session session, Function<Session, Integer> trabajo) {
+        Transaction transaction = session.beginTransaction();
+        try {
+            int actualizados = trabajo.apply(session);
+            transaction.commit();
+            // Cualquier copia de Producto en la caché de segundo nivel quedó vieja
+            session.getSessionFactory().getCache().evictEntityData(Producto.class);
+            return actualizados;
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        }
+    }
+
+    private static int sumar(List<Integer> porShard) {
+        return porShard.stream().mapToInt(Integer::intValue).sum();
+    }
+}
@@ -0,0 +1,12 @@
+package org.app.services;
+
+/**
+ * La consulta fue rechazada porque el método alcanzó su límite de concurrencia.
+ */
+public class ConsultaRechazadaException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ConsultaRechazadaException(String message) {
+        super(message);
+    }
+}
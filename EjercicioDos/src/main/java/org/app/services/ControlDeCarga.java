@@ -0,0 +1,120 @@
+package org.app.services;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Plazos por llamada, límites de concurrencia por método y contadores de resultados de Logica.
+ * El plazo se guarda en el hilo que llama y {@link EjecucionEnShards} lo aplica a cada consulta.
+ */
+class ControlDeCarga {
+    static final long SIN_PLAZO = Long.MAX_VALUE;
+
+    private record Limite(Semaphore permisos, long esperaMaximaNanos) {}
+
+    private static final ThreadLocal<Long> plazo = ThreadLocal.withInitial(() -> SIN_PLAZO);
+    private static final Map<String, Limite> limites = new ConcurrentHashMap<>();
+    private static final Map<String, Map<ResultadoConsulta, LongAdder>> contadores = new ConcurrentHashMap<>();
+
+    private ControlDeCarga() {
+    }
+
+    // Un plazo anidado nunca extiende al de afuera
+    static <T> T conPlazo(Duration duracion, Supplier<T> llamada) {
+        long anterior = plazo.get();
+        plazo.set(Math.min(anterior, System.nanoTime() + duracion.toNanos()));
+        try {
+            return llamada.get();
+        } finally {
+            plazo.set(anterior);
+        }
+    }
+
+    // Instante (System.nanoTime) en que vence el plazo del hilo actual, o SIN_PLAZO
+    static long plazoActual() {
+        return plazo.get();
+    }
+
+    static void limitar(String metodo, int maximoConcurrente, Duration esperaMaxima) {
+        limites.put(metodo, new Limite(new Semaphore(maximoConcurrente, true), esperaMaxima.toNanos()));
+    }
+
+    static void quitarLimite(String metodo) {
+        limites.remove(metodo);
+    }
+
+    static <T> T ejecutar(String metodo, Supplier<T> llamada) {
+        long vence = plazo.get();
+        if (vence != SIN_PLAZO && System.nanoTime() >= vence) {
+            contar(metodo, ResultadoConsulta.PLAZO_VENCIDO);
+            throw new PlazoVencidoException("El plazo de " + metodo + " venció antes de empezar");
+        }
+
+        Limite limite = limites.get(metodo);
+        if (limite != null && !adquirir(limite, vence)) {
+            contar(metodo, ResultadoConsulta.RECHAZADA);
+            throw new ConsultaRechazadaException(metodo + " alcanzó su límite de consultas concurrentes");
+        }
+        try {
+            T resultado = llamada.get();
+            contar(metodo, ResultadoConsulta.EXITOSA);
+            return resultado;
+        } catch (PlazoVencidoException e) {
+            contar(metodo, ResultadoConsulta.PLAZO_VENCIDO);
+            throw e;
+        } catch (RuntimeException e) {
+            contar(metodo, ResultadoConsulta.ERROR);
+            throw e;
+        } finally {
+            if (limite != null) {
+                limite.permisos().release();
+            }
+        }
+    }
+
+    static Map<String, Map<ResultadoConsulta, Long>> obtenerEstadisticas() {
+        Map<String, Map<ResultadoConsulta, Long>> estadisticas = new TreeMap<>();
+        contadores.forEach((metodo, porResultado) -> {
+            Map<ResultadoConsulta, Long> valores = new EnumMap<>(ResultadoConsulta.class);
+            porResultado.forEach((resultado, contador) -> valores.put(resultado, contador.sum()));
+            estadisticas.put(metodo, valores);
+        });
+        return estadisticas;
+    }
+
+    private static boolean adquirir(Limite limite, long vence) {
+        // Se espera lo que permita el límite, sin pasarse del plazo de la llamada
+        long espera = limite.esperaMaximaNanos();
+        if (vence != SIN_PLAZO) {
+            espera = Math.min(espera, vence - System.nanoTime());
+        }
+        if (espera <= 0) {
+            return limite.permisos().tryAcquire();
+        }
+        try {
+            return limite.permisos().tryAcquire(espera, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void contar(String metodo, ResultadoConsulta resultado) {
+        contadores.computeIfAbsent(metodo, m -> {
+                      Map<ResultadoConsulta, LongAdder> porResultado = new EnumMap<>(ResultadoConsulta.class);
+                      for (ResultadoConsulta r : ResultadoConsulta.values()) {
+                          porResultado.put(r, new LongAdder());
+                      }
+                      return porResultado;
+                  })
+                  .get(resultado)
+                  .increment();
+    }
+}
@@ -0,0 +1,160 @@
+package org.app.services;
+
+import org.app.utils.HibernateUtil;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Ejecuta trabajo sobre los shards del catálogo, cada uno con su propia sesión.
+ * Si el hilo que llama tiene un plazo (ver {@link ControlDeCarga}), cada sesión recibe el tiempo
+ * restante como timeout de consulta y, al vencer, se cancela la consulta en curso con el driver
+ * y se interrumpe el hilo que la ejecuta.
+ * Toda consulta a un shard debería pasar por acá para que el plazo la alcance.
+ */
+public class EjecucionEnShards {
+    private static final String TIMEOUT_CONSULTA = "jakarta.persistence.query.timeout";
+
+    private static final ExecutorService ejecutor = Executors.newCachedThreadPool(tarea -> {
+        Thread hilo = new Thread(tarea, "logica-shard");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private EjecucionEnShards() {
+    }
+
+    // Ejecuta el trabajo en cada shard, en paralelo cuando hay más de uno, y devuelve un resultado por shard
+    static <R> List<R> enTodos(Function<Session, R> trabajo) {
+        return enTodos((shard, session) -> trabajo.apply(session));
+    }
+
+    // Igual que enTodos(Function), para trabajo que depende del shard (por ejemplo, la parte de un lote que le toca)
+    static <R> List<R> enTodos(BiFunction<Integer, Session, R> trabajo) {
+        int cantidadShards = HibernateUtil.getCantidadShards();
+        int[] shards = new int[cantidadShards];
+        for (int i = 0; i < cantidadShards; i++) {
+            shards[i] = i;
+        }
+        return ejecutar(shards, trabajo, false);
+    }
+
+    // Igual que enTodos(Function), con sesiones para recorrer tablas completas con cursor
+    // (ver HibernateUtil.getSessionDeRecorrido)
+    static <R> List<R> enTodosParaRecorrido(Function<Session, R> trabajo) {
+        int cantidadShards = HibernateUtil.getCantidadShards();
+        int[] shards = new int[cantidadShards];
+        for (int i = 0; i < cantidadShards; i++) {
+            shards[i] = i;
+        }
+        return ejecutar(shards, (shard, session) -> trabajo.apply(session), true);
+    }
+
+    public static <R> R enShard(int shard, Function<Session, R> trabajo) {
+        return ejecutar(new int[]{shard}, (indice, session) -> trabajo.apply(session), false).get(0);
+    }
+
+    private static <R> List<R> ejecutar(int[] shards, BiFunction<Integer, Session, R> trabajo, boolean recorrido) {
+        long vence = ControlDeCarga.plazoActual();
+        if (shards.length == 1 && vence == ControlDeCarga.SIN_PLAZO) {
+            try (Session session = abrir(shards[0], recorrido)) {
+                return Collections.singletonList(trabajo.apply(shards[0], session));
+            }
+        }
+
+        // Las sesiones en uso quedan visibles para poder cancelar sus consultas desde este hilo
+        AtomicReferenceArray<Session> enCurso = new AtomicReferenceArray<>(shards.length);
+        List<Future<R>> pendientes = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            int posicion = i;
+            pendientes.add(ejecutor.submit(() -> {
+                try (Session session = abrir(shards[posicion], recorrido)) {
+                    if (vence != ControlDeCarga.SIN_PLAZO) {
+                        aplicarPlazo(session, vence);
+                    }
+                    enCurso.set(posicion, session);
+                    try {
+                        // cancelQuery no alcanza a una consulta que todavía no empezó: si la tarea esperó un hilo
+                        // o una conexión más allá del plazo, o ya fue cancelada, no se ejecuta
+                        if (Thread.currentThread().isInterrupted()
+                                || (vence != ControlDeCarga.SIN_PLAZO && System.nanoTime() >= vence)) {
+                            throw new PlazoVencidoException("El plazo venció antes de ejecutar la consulta");
+                        }
+                        return trabajo.apply(shards[posicion], session);
+                    } finally {
+                        enCurso.set(posicion, null);
+                    }
+                }
+            }));
+        }
+
+        List<R> resultados = new ArrayList<>();
+        try {
+            for (Future<R> pendiente : pendientes) {
+                if (vence == ControlDeCarga.SIN_PLAZO) {
+                    resultados.add(pendiente.get());
+                } else {
+                    resultados.add(pendiente.get(Math.max(0, vence - System.nanoTime()), TimeUnit.NANOSECONDS));
+                }
+            }
+            return resultados;
+        } catch (TimeoutException e) {
+            cancelar(enCurso, pendientes);
+            throw new PlazoVencidoException("La consulta superó su plazo y fue cancelada");
+        } catch (InterruptedException e) {
+            cancelar(enCurso, pendientes);
+            Thread.currentThread().interrupt();
+            throw new PlazoVencidoException("La consulta fue interrumpida", e);
+        } catch (ExecutionException e) {
+            cancelar(enCurso, pendientes);
+            Throwable causa = e.getCause();
+            if (causa instanceof jakarta.persistence.QueryTimeoutException
+                    || causa instanceof org.hibernate.QueryTimeoutException) {
+                throw new PlazoVencidoException("La base canceló la consulta por timeout", causa);
+            }
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    private static Session abrir(int shard, boolean recorrido) {
+        return recorrido ? HibernateUtil.getSessionDeRecorrido(shard) : HibernateUtil.getSession(shard);
+    }
+
+    // Hibernate pasa el timeout al driver en segundos con Math.round(ms / 1000.0), así que menos de 500 ms
+    // quedaría en 0, que para JDBC es sin timeout: se redondea hacia arriba y nunca baja de un segundo
+    static void aplicarPlazo(Session session, long vence) {
+        long restante = TimeUnit.NANOSECONDS.toMillis(vence - System.nanoTime());
+        long segundos = Math.max(1, Math.min(Integer.MAX_VALUE / 1000, (restante + 999) / 1000));
+        session.setProperty(TIMEOUT_CONSULTA, (int) segundos * 1000);
+    }
+
+    private static void cancelar(AtomicReferenceArray<Session> enCurso, List<? extends Future<?>> pendientes) {
+        for (int i = 0; i < enCurso.length(); i++) {
+            Session session = enCurso.get(i);
+            if (session != null) {
+                try {
+                    // Único método de Session que se puede llamar desde otro hilo
+                    session.cancelQuery();
+                } catch (RuntimeException e) {
+                    // La consulta pudo haber terminado entre la lectura y la cancelación
+                }
+            }
+        }
+        // Interrumpe los hilos de las tareas que siguen corriendo y descarta las que no empezaron
+        pendientes.forEach(pendiente -> pendiente.cancel(true));
+    }
+}
@@ -0,0 +1,215 @@
+package org.app.services;
+
+import org.app.dto.CategoriaDTO;
+import org.app.dto.ProductoDTO;
+import org.app.models.Categoria;
+import org.app.models.Producto;
+import org.app.utils.DiccionarioCategorias;
+import org.app.utils.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Altas y cambios del catálogo que respetan el reparto en shards.
+ * Las categorías se replican en todos los shards con el mismo id: el id lo asigna el shard 0
+ * y los demás lo reciben explícito, así que nunca se deben insertar categorías directamente en otro shard.
+ * Los productos se escriben en el shard de su categoría.
+ * Sin transacciones distribuidas, si falla un shard se deshace lo ya escrito en los demás.
+ */
+public class EscriturasCatalogo {
+    private static EscriturasCatalogo instance;
+
+    private EscriturasCatalogo() {
+    }
+
+    public static EscriturasCatalogo getInstance() {
+        if (instance == null) {
+            instance = new EscriturasCatalogo();
+        }
+        return instance;
+    }
+
+    /**
+     * Crea la categoría en el shard 0, que le asigna el id, y la copia con ese id en los demás shards.
+     */
+    public CategoriaDTO crearCategoria(String nombre) {
+        Categoria categoria = new Categoria(nombre);
+        EjecucionEnShards.enShard(0, session -> enTransaccion(session, s -> {
+            s.persist(categoria);
+            return 1;
+        }));
+
+        List<Integer> escritos = new ArrayList<>(List.of(0));
+        try {
+            for (int shard = 1; shard < HibernateUtil.getCantidadShards(); shard++) {
+                EjecucionEnShards.enShard(shard, session -> enTransaccion(session, s ->
+                        s.createNativeMutationQuery("INSERT INTO Categorias (id, nombre) VALUES (:id, :nombre)")
+                         .setParameter("id", categoria.getId())
+                         .setParameter("nombre", nombre)
+                         .executeUpdate()));
+                escritos.add(shard);
+            }
+        } catch (RuntimeException e) {
+            for (int shard : escritos) {
+                try {
+                    borrarCategoria(shard, categoria.getId());
+                } catch (RuntimeException compensacion) {
+                    e.addSuppressed(compensacion);
+                }
+            }
+            throw e;
+        } finally {
+            // Los INSERT nativos no pasan por InvalidadorCategorias
+            DiccionarioCategorias.invalidar();
+        }
+        return CategoriaDTO.fromEntity(categoria);
+    }
+
+    /**
+     * Renombra la categoría en todos los shards.
+     *
+     * @return false si la categoría no existe.
+     */
+    public boolean renombrarCategoria(Integer categoriaId, String nombre) {
+        try {
+            List<Integer> actualizadas = EjecucionEnShards.enTodos(session -> enTransaccion(session, s ->
+                    s.createMutationQuery("update Categoria c set c.nombre = :nombre where c.id = :id")
+                     .setParameter("nombre", nombre)
+                     .setParameter("id", categoriaId)
+                     .executeUpdate()));
+            return actualizadas.get(0) > 0;
+        } finally {
+            // Los UPDATE en HQL no pasan por InvalidadorCategorias
+            DiccionarioCategorias.invalidar();
+        }
+    }
+
+    /**
+     * Elimina la categoría de todos los shards. Primero se borra del shard que guarda sus productos,
+     * así una categoría con productos falla por su clave foránea antes de tocar las réplicas.
+     *
+     * @return false si la categoría no existe.
+     */
+    public boolean eliminarCategoria(Integer categoriaId) {
+        int propio = HibernateUtil.getShardDeCategoria(categoriaId);
+        try {
+            boolean existia = borrarCategoria(propio, categoriaId) > 0;
+            for (int shard = 0; shard < HibernateUtil.getCantidadShards(); shard++) {
+                if (shard != propio) {
+                    borrarCategoria(shard, categoriaId);
+                }
+            }
+            return existia;
+        } finally {
+            DiccionarioCategorias.invalidar();
+        }
+    }
+
+    /**
+     * Crea el producto en el shard de su categoría, que también le asigna el id.
+     */
+    public ProductoDTO crearProducto(String nombre, Integer categoriaId, BigDecimal precio, Integer stock, LocalDate fechaIngreso) {
+        int shard = HibernateUtil.getShardDeCategoria(categoriaId);
+        return EjecucionEnShards.enShard(shard, session -> {
+            Categoria categoria = null;
+            if (categoriaId != null) {
+                categoria = session.get(Categoria.class, categoriaId);
+                if (categoria == null) {
+                    throw new IllegalArgumentException("La categoría " + categoriaId + " no existe");
+                }
+            }
+            Producto producto = new Producto(nombre, categoria, precio, stock, fechaIngreso);
+            enTransaccion(session, s -> {
+                s.persist(producto);
+                return 1;
+            });
+            return ProductoDTO.fromEntity(producto);
+        });
+    }
+
+    /**
+     * Pasa el producto a otra categoría. Si la nueva categoría vive en otro shard, el producto se copia
+     * a ese shard y se borra del anterior, y como el id indica el shard, el producto recibe un id nuevo.
+     *
+     * @return El producto con su categoría nueva, o null si el producto no existe.
+     */
+    public ProductoDTO cambiarCategoria(Integer productoId, Integer categoriaId) {
+        int origen = HibernateUtil.getShardDeProducto(productoId);
+        int destino = HibernateUtil.getShardDeCategoria(categoriaId);
+        if (origen == destino) {
+            return EjecucionEnShards.enShard(origen, session -> {
+                Transaction transaction = session.beginTransaction();
+                try {
+                    Producto producto = session.get(Producto.class, productoId);
+                    if (producto == null) {
+                        transaction.rollback();
+                        return null;
+                    }
+                    Categoria categoria = categoriaId == null ? null : session.get(Categoria.class, categoriaId);
+                    if (categoriaId != null && categoria == null) {
+                        throw new IllegalArgumentException("La categoría " + categoriaId + " no existe");
+                    }
+                    producto.setCategoria(categoria);
+                    transaction.commit();
+                    return ProductoDTO.fromEntity(producto);
+                } catch (RuntimeException e) {
+                    if (transaction.isActive()) {
+                        transaction.rollback();
+                    }
+                    throw e;
+                }
+            });
+        }
+
+        ProductoDTO actual = EjecucionEnShards.enShard(origen, session -> {
+            Producto producto = session.get(Producto.class, productoId);
+            return producto == null ? null : ProductoDTO.fromEntity(producto);
+        });
+        if (actual == null) {
+            return null;
+        }
+        ProductoDTO movido = crearProducto(actual.getNombre(), categoriaId, actual.getPrecio(), actual.getStock(), actual.getFechaIngreso());
+        try {
+            EjecucionEnShards.enShard(origen, session -> enTransaccion(session, s ->
+                    s.createMutationQuery("delete from Producto p where p.id = :id")
+                     .setParameter("id", productoId)
+                     .executeUpdate()));
+        } catch (RuntimeException e) {
+            try {
+                EjecucionEnShards.enShard(destino, session -> enTransaccion(session, s ->
+                        s.createMutationQuery("delete from Producto p where p.id = :id")
+                         .setParameter("id", movido.getId())
+                         .executeUpdate()));
+            } catch (RuntimeException compensacion) {
+                e.addSuppressed(compensacion);
+            }
+            throw e;
+        }
+        return movido;
+    }
+
+    private static int borrarCategoria(int shard, Integer categoriaId) {
+        return EjecucionEnShards.enShard(shard, session -> enTransaccion(session, s ->
+                s.createMutationQuery("delete from Categoria c where c.id = :id")
+                 .setParameter("id", categoriaId)
+                 .executeUpdate()));
+    }
+
+    private static int enTransaccion(Session session, Function<Session, Integer> trabajo) {
+        Transaction transaction = session.beginTransaction();
+        try {
+            int escritos = trabajo.apply(session);
+            transaction.commit();
+            return escritos;
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package org.app.services;
+
+import org.app.dto.ProductoDTO;
+import org.app.models.Producto;
+import org.app.utils.HibernateUtil;
+import org.app.utils.LocalDateTimeUtils;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice en memoria de las fechas de ingreso, agrupado por mes, para contar y listar los productos
+ * ingresados en ventanas recientes (últimos 7/30/90 días) sin recorrer la tabla.
+ * Es una foto del momento en que se construyó: los productos agregados o borrados después
+ * no se reflejan hasta volver a construirlo.
+ *
+ * Cada producto se guarda como una clave long (epochDia << 40 | shard << 32 | id), de modo que
+ * ordenar las claves las ordena por fecha; para cada mes se guarda dónde empiezan sus claves
+ * y sólo los meses de los extremos de un rango necesitan búsqueda binaria.
+ */
+public class IndiceFechasIngreso {
+    private static final int BITS_SHARD_E_ID = 40;
+    private static final int MAXIMO_SHARDS = 256;
+    // En MySQL el fetch size sólo se respeta con useCursorFetch=true, que agregan las sesiones de recorrido
+    private static final int TAMANIO_FETCH = 1000;
+    // Cantidad de ids por IN al traer los productos de un rango
+    private static final int TAMANIO_LOTE = 1000;
+
+    private final long[] claves;
+    // Meses contados desde el año 0 (año * 12 + mes - 1)
+    private final int primerMes;
+    // inicioMes[m - primerMes] es la primera clave del mes m; el último elemento es claves.length
+    private final int[] inicioMes;
+
+    private IndiceFechasIngreso(long[] claves) {
+        Arrays.parallelSort(claves);
+        this.claves = claves;
+        if (claves.length == 0) {
+            primerMes = 0;
+            inicioMes = new int[]{0};
+            return;
+        }
+        primerMes = mes(epochDia(claves[0]));
+        int ultimoMes = mes(epochDia(claves[claves.length - 1]));
+        inicioMes = new int[ultimoMes - primerMes + 2];
+
+        int mesActual = primerMes;
+        long diaAnterior = Long.MIN_VALUE;
+        for (int i = 0; i < claves.length; i++) {
+            long dia = epochDia(claves[i]);
+            if (dia == diaAnterior) {
+                continue;
+            }
+            diaAnterior = dia;
+            int mes = mes(dia);
+            while (mesActual < mes) {
+                inicioMes[++mesActual - primerMes] = i;
+            }
+        }
+        inicioMes[inicioMes.length - 1] = claves.length;
+    }
+
+    /**
+     * Construye el índice con las fechas de ingreso de todos los shards.
+     * Los productos sin fecha de ingreso no se indexan.
+     */
+    public static IndiceFechasIngreso construir() {
+        if (HibernateUtil.getCantidadShards() > MAXIMO_SHARDS) {
+            throw new IllegalStateException("El índice admite hasta " + MAXIMO_SHARDS + " shards");
+        }
+        List<long[]> porShard = EjecucionEnShards.enTodosParaRecorrido(session -> {
+            long[] leidas = new long[TAMANIO_FETCH];
+            int cantidad = 0;
+            try (ScrollableResults<Object[]> cursor = session
+                    .createQuery("select p.id, p.fechaIngreso from Producto p where p.fechaIngreso is not null", Object[].class)
+                    .setFetchSize(TAMANIO_FETCH)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (cursor.next()) {
+                    Object[] fila = cursor.get();
+                    if (cantidad == leidas.length) {
+                        leidas = Arrays.copyOf(leidas, cantidad * 2);
+                    }
+                    leidas[cantidad++] = clave(((LocalDate) fila[1]).toEpochDay(), 0, (Integer) fila[0]);
+                }
+            }
+            return Arrays.copyOf(leidas, cantidad);
+        });
+
+        long[] claves = new long[porShard.stream().mapToInt(c -> c.length).sum()];
+        int posicion = 0;
+        for (int shard = 0; shard < porShard.size(); shard++) {
+            for (long clave : porShard.get(shard)) {
+                claves[posicion++] = clave | ((long) shard << 32);
+            }
+        }
+        return new IndiceFechasIngreso(claves);
+    }
+
+    /**
+     * Construye el índice a partir de columnas ya cargadas, por ejemplo las fechas obtenidas con
+     * {@link LocalDateTimeUtils#parsearEpochDias(byte[], int[], int, long[])}.
+     * Las posiciones con {@link LocalDateTimeUtils#FECHA_INVALIDA} se ignoran.
+     */
+    public static IndiceFechasIngreso desdeDias(int[] shards, int[] ids, long[] epochDias, int cantidad) {
+        long[] claves = new long[cantidad];
+        int validas = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (epochDias[i] == LocalDateTimeUtils.FECHA_INVALIDA) {
+                continue;
+            }
+            if (shards[i] < 0 || shards[i] >= MAXIMO_SHARDS || ids[i] < 0) {
+                throw new IllegalArgumentException("Shard o id fuera de rango en la posición " + i);
+            }
+            claves[validas++] = clave(epochDias[i], shards[i], ids[i]);
+        }
+        return new IndiceFechasIngreso(validas == cantidad ? claves : Arrays.copyOf(claves, validas));
+    }
+
+    public int getCantidad() {
+        return claves.length;
+    }
+
+    /**
+     * @return La cantidad de productos ingresados entre las fechas indicadas, ambas inclusive.
+     */
+    public int contar(LocalDate desde, LocalDate hasta) {
+        return Math.max(0, primeraClaveDesde(hasta.toEpochDay() + 1) - primeraClaveDesde(desde.toEpochDay()));
+    }
+
+    /**
+     * @return La cantidad de productos ingresados en los últimos días, contando hoy.
+     */
+    public int contarUltimosDias(int dias) {
+        LocalDate hoy = LocalDate.now();
+        return contar(inicioVentana(hoy, dias), hoy);
+    }
+
+    /**
+     * @return Los ids de los productos ingresados entre las fechas indicadas (ambas inclusive),
+     * agrupados por shard y ordenados por fecha de ingreso.
+     */
+    public Map<Integer, List<Integer>> idsPorShardEntre(LocalDate desde, LocalDate hasta) {
+        Map<Integer, List<Integer>> ids = new LinkedHashMap<>();
+        int fin = primeraClaveDesde(hasta.toEpochDay() + 1);
+        for (int i = primeraClaveDesde(desde.toEpochDay()); i < fin; i++) {
+            ids.computeIfAbsent(shard(claves[i]), s -> new ArrayList<>()).add(id(claves[i]));
+        }
+        return ids;
+    }
+
+    /**
+     * Trae de la base, por clave primaria, los productos que el índice ubica entre las fechas indicadas.
+     * Los productos borrados desde que se construyó el índice no aparecen.
+     */
+    public List<ProductoDTO> obtenerProductosEntre(LocalDate desde, LocalDate hasta) {
+        List<ProductoDTO> productos = new ArrayList<>();
+        idsPorShardEntre(desde, hasta).forEach((shard, ids) ->
+                productos.addAll(EjecucionEnShards.enShard(shard, session -> {
+                    List<ProductoDTO> encontrados = new ArrayList<>();
+                    for (int i = 0; i < ids.size(); i += TAMANIO_LOTE) {
+                        session.createQuery("select p from Producto p left join fetch p.categoria where p.id in :ids", Producto.class)
+                               .setParameterList("ids", ids.subList(i, Math.min(ids.size(), i + TAMANIO_LOTE)))
+                               .getResultList()
+                               .forEach(producto -> encontrados.add(ProductoDTO.fromEntity(producto)));
+                    }
+                    return encontrados;
+                })));
+        productos.sort(Comparator.comparing(ProductoDTO::getFechaIngreso).thenComparing(ProductoDTO::getId));
+        return productos;
+    }
+
+    public List<ProductoDTO> obtenerProductosUltimosDias(int dias) {
+        LocalDate hoy = LocalDate.now();
+        return obtenerProductosEntre(inicioVentana(hoy, dias), hoy);
+    }
+
+    // Posición de la primera clave con fecha mayor o igual al día indicado
+    private int primeraClaveDesde(long dia) {
+        int mes = mes(dia);
+        if (claves.length == 0 || mes < primerMes) {
+            return 0;
+        }
+        if (mes - primerMes >= inicioMes.length - 1) {
+            return claves.length;
+        }
+        int bajo = inicioMes[mes - primerMes];
+        int alto = inicioMes[mes - primerMes + 1];
+        long buscada = dia << BITS_SHARD_E_ID;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (claves[medio] < buscada) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private static LocalDate inicioVentana(LocalDate hoy, int dias) {
+        if (dias <= 0) {
+            throw new IllegalArgumentException("La cantidad de días debe ser mayor a cero");
+        }
+        return hoy.minusDays(dias - 1);
+    }
+
+    private static long clave(long epochDia, int shard, int id) {
+        return (epochDia << BITS_SHARD_E_ID) | ((long) shard << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    private static long epochDia(long clave) {
+        return clave >> BITS_SHARD_E_ID;
+    }
+
+    private static int shard(long clave) {
+        return (int) ((clave >>> 32) & (MAXIMO_SHARDS - 1));
+    }
+
+    private static int id(long clave) {
+        return (int) clave;
+    }
+
+    private static int mes(long epochDia) {
+        LocalDate fecha = LocalDate.ofEpochDay(epochDia);
+        return fecha.getYear() * 12 + fecha.getMonthValue() - 1;
+    }
+}
@@ -2,6 +2,7 @@ package org.app.services;
 
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import org.app.utils.DiccionarioCategorias;
 import org.app.utils.HibernateUtil;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Predicate;
@@ -10,15 +11,46 @@ import org.hibernate.*;
 import org.app.models.Producto;
 import org.app.models.Categoria;
 import org.app.dto.ProductoDTO;
+import org.app.dto.CategoriaDTO;
+import org.app.dto.CategoriaResumenDTO;
+import org.app.dto.FiltroBusquedaDTO;
+import org.app.dto.ResultadoBusquedaDTO;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.List;
-import java.util.Date;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.math.MathContext;
 import java.util.stream.Collectors;
 
 public class Logica {
     private static Logica instance;
 
+    // Rangos de las facetas de búsqueda; cada límite es el inicio del rango siguiente
+    private static final String CONTEOS_PRECIO = conteosPorRango("p.precio", "50", "100", "500", "1000");
+    private static final String[] RANGOS_PRECIO = {"< 50", "50 - 100", "100 - 500", "500 - 1000", ">= 1000"};
+    private static final String CONTEOS_STOCK = conteosPorRango("p.stock", "1", "10", "50");
+    private static final String[] RANGOS_STOCK = {"Sin stock", "1 - 9", "10 - 49", ">= 50"};
+    private static final String SIN_DATO = "Sin dato";
+    private static final int FACETA_CATEGORIA = 0;
+    private static final int FACETA_MES = 1;
+    // Columnas de cada fila de facetas: faceta, nombre, año, mes, cantidad, y un conteo por rango
+    // (primero el de "sin dato") de precio y de stock
+    private static final int COLUMNA_PRECIOS = 5;
+    private static final int COLUMNA_STOCKS = COLUMNA_PRECIOS + RANGOS_PRECIO.length + 1;
+    private static final String SIN_CONTEOS = ", 0L".repeat(RANGOS_PRECIO.length + RANGOS_STOCK.length + 2);
+
     private Logica() {
     }
 
@@ -29,120 +61,124 @@ public class Logica {
         return instance;
     }
 
+    /**
+     * Ejecuta llamadas a Logica con un plazo. Las consultas reciben el tiempo restante como timeout
+     * de JDBC y, si el plazo vence, se cancelan y la llamada lanza {@link PlazoVencidoException}.
+     */
+    public <T> T conPlazo(Duration plazo, Supplier<T> llamada) {
+        return ControlDeCarga.conPlazo(plazo, llamada);
+    }
+
+    /**
+     * Limita las llamadas concurrentes a un método de Logica. Con el límite alcanzado, una llamada espera
+     * hasta esperaMaxima (o hasta su plazo, si es menor) y luego lanza {@link ConsultaRechazadaException}.
+     */
+    public void limitarConcurrencia(String metodo, int maximoConcurrente, Duration esperaMaxima) {
+        ControlDeCarga.limitar(metodo, maximoConcurrente, esperaMaxima);
+    }
+
+    public void quitarLimiteConcurrencia(String metodo) {
+        ControlDeCarga.quitarLimite(metodo);
+    }
+
+    // Cantidad de llamadas por método y por resultado desde que arrancó la aplicación
+    public Map<String, Map<ResultadoConsulta, Long>> obtenerEstadisticas() {
+        return ControlDeCarga.obtenerEstadisticas();
+    }
+
     // 1. Join Básico entre Productos y Categorias
     public List<ProductoDTO> obtenerProductosConCategorias() {
-        try (Session session = HibernateUtil.getSession()) {
+        return ControlDeCarga.ejecutar("obtenerProductosConCategorias", () -> unir(enTodosLosShards(session -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
             Root<Producto> producto = query.from(Producto.class);
             Join<Producto, Categoria> categoria = producto.join("categoria");
-            
+
             query.select(producto);
-            
-            List<Producto> productos = session.createQuery(query).getResultList();
-            return productos.stream()
-                          .map(ProductoDTO::fromEntity)
-                          .collect(Collectors.toList());
-        }
+
+            return aDTOs(session.createQuery(query).getResultList());
+        })));
     }
 
     // 2. Left Join con Filtro
     public List<ProductoDTO> obtenerTodosProductosConCategorias() {
-        try (Session session = HibernateUtil.getSession()) {
+        return ControlDeCarga.ejecutar("obtenerTodosProductosConCategorias", () -> unir(enTodosLosShards(session -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
             Root<Producto> producto = query.from(Producto.class);
             producto.join("categoria", jakarta.persistence.criteria.JoinType.LEFT);
-            
+
             query.select(producto);
-            
-            List<Producto> productos = session.createQuery(query).getResultList();
-            return productos.stream()
-                          .map(ProductoDTO::fromEntity)
-                          .collect(Collectors.toList());
-        }
+
+            return aDTOs(session.createQuery(query).getResultList());
+        })));
     }
 
     // 3. Inner Join con Filtrado por Precio
     public List<ProductoDTO> obtenerProductosPrecioMayorConCategoria(BigDecimal precio) {
-        try (Session session = HibernateUtil.getSession()) {
+        return ControlDeCarga.ejecutar("obtenerProductosPrecioMayorConCategoria", () -> unir(enTodosLosShards(session -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
             Root<Producto> producto = query.from(Producto.class);
             Join<Producto, Categoria> categoria = producto.join("categoria");
-            
+
             query.select(producto)
                  .where(cb.gt(producto.get("precio"), precio));
-            
-            List<Producto> productos = session.createQuery(query).getResultList();
-            return productos.stream()
-                          .map(ProductoDTO::fromEntity)
-                          .collect(Collectors.toList());
-        }
+
+            return aDTOs(session.createQuery(query).getResultList());
+        })));
     }
 
     // 4. Right Join con Filtrado por Stock
     public List<ProductoDTO> obtenerCategoriasConProductos() {
-        try (Session session = HibernateUtil.getSession()) {
+        return ControlDeCarga.ejecutar("obtenerCategoriasConProductos", () -> unir(enTodosLosShards(session -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
             Root<Categoria> categoria = query.from(Categoria.class);
             Join<Categoria, Producto> producto = categoria.join("productos", jakarta.persistence.criteria.JoinType.RIGHT);
-            
+
             query.select(producto);
-            
-            List<Producto> productos = session.createQuery(query).getResultList();
-            return productos.stream()
-                          .map(ProductoDTO::fromEntity)
-                          .collect(Collectors.toList());
-        }
+
+            return aDTOs(session.createQuery(query).getResultList());
+        })));
     }
 
     // 5. Consulta con Join y Ordenación
     public List<ProductoDTO> obtenerProductosOrdenadosPorCategoriaYPrecio() {
-        try (Session session = HibernateUtil.getSession()) {
-            CriteriaBuilder cb = session.getCriteriaBuilder();
-            CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
-            Root<Producto> producto = query.from(Producto.class);
-            Join<Producto, Categoria> categoria = producto.join("categoria");
-            
-            query.select(producto)
-                 .orderBy(
-                     cb.asc(categoria.get("nombre")),
-                     cb.desc(producto.get("precio"))
-                 );
-            
-            List<Producto> productos = session.createQuery(query).getResultList();
-            return productos.stream()
-                          .map(ProductoDTO::fromEntity)
-                          .collect(Collectors.toList());
-        }
+        return ControlDeCarga.ejecutar("obtenerProductosOrdenadosPorCategoriaYPrecio", () -> consultarOrdenadosPorCategoriaYPrecio(0));
     }
 
-    // 6. Consulta de Productos por Rango de Fechas
-    public List<ProductoDTO> obtenerProductosPorRangoFechas(Date fechaInicio, Date fechaFin) {
-        try (Session session = HibernateUtil.getSession()) {
+    // 5b. Consulta con Join y Ordenación, limitada a los primeros resultados
+    public List<ProductoDTO> obtenerProductosOrdenadosPorCategoriaYPrecio(int limite) {
+        return ControlDeCarga.ejecutar("obtenerProductosOrdenadosPorCategoriaYPrecio", () -> {
+            if (limite <= 0) {
+                throw new IllegalArgumentException("El límite debe ser mayor a cero");
+            }
+            return consultarOrdenadosPorCategoriaYPrecio(limite);
+        });
+    }
+
+    // 6. Consulta de Productos por Rango de Fechas (ambas inclusive; usa idx_productos_fecha_ingreso)
+    public List<ProductoDTO> obtenerProductosPorRangoFechas(LocalDate fechaInicio, LocalDate fechaFin) {
+        return ControlDeCarga.ejecutar("obtenerProductosPorRangoFechas", () -> unir(enTodosLosShards(session -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
             Root<Producto> producto = query.from(Producto.class);
-            
+
             query.select(producto)
                  .where(cb.between(producto.get("fechaIngreso"), fechaInicio, fechaFin));
-            
-            List<Producto> productos = session.createQuery(query).getResultList();
-            return productos.stream()
-                          .map(ProductoDTO::fromEntity)
-                          .collect(Collectors.toList());
-        }
+
+            return aDTOs(session.createQuery(query).getResultList());
+        })));
     }
 
     // 7. Consulta de Stock y Precio
     public List<ProductoDTO> obtenerProductosPorStockYPrecio(int stockMinimo, BigDecimal precioMaximo) {
-        try (Session session = HibernateUtil.getSession()) {
+        return ControlDeCarga.ejecutar("obtenerProductosPorStockYPrecio", () -> unir(enTodosLosShards(session -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
             Root<Producto> producto = query.from(Producto.class);
-            
+
             query.select(producto)
                  .where(
                      cb.and(
@@ -150,82 +186,476 @@ public class Logica {
                          cb.lt(producto.get("precio"), precioMaximo)
                      )
                  );
-            
-            List<Producto> productos = session.createQuery(query).getResultList();
-            return productos.stream()
-                          .map(ProductoDTO::fromEntity)
-                          .collect(Collectors.toList());
-        }
+
+            return aDTOs(session.createQuery(query).getResultList());
+        })));
     }
 
     // 8. Consulta de Productos por Nombre y Categoría
     public List<ProductoDTO> obtenerProductosPorNombreYCategoria(String nombreProducto, String nombreCategoria) {
-        try (Session session = HibernateUtil.getSession()) {
+        return ControlDeCarga.ejecutar("obtenerProductosPorNombreYCategoria", () -> enShardDeCategoria(nombreCategoria, (session, categoriaIds) -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
             Root<Producto> producto = query.from(Producto.class);
-            Join<Producto, Categoria> categoria = producto.join("categoria");
-            
+
+            // Filtra por la FK categoria_id, sin join con Categorias
             query.select(producto)
                  .where(
                      cb.and(
                          cb.like(producto.get("nombre"), "%" + nombreProducto + "%"),
-                         cb.equal(categoria.get("nombre"), nombreCategoria)
+                         producto.get("categoria").get("id").in(categoriaIds)
                      )
                  );
-            
-            List<Producto> productos = session.createQuery(query).getResultList();
-            return productos.stream()
-                          .map(ProductoDTO::fromEntity)
-                          .collect(Collectors.toList());
-        }
+
+            return aDTOs(session.createQuery(query).getResultList());
+        }));
     }
 
     // 9. Consulta de Productos con Precio Mayor al Promedio
     public List<ProductoDTO> obtenerProductosPrecioMayorPromedio() {
-        try (Session session = HibernateUtil.getSession()) {
-            CriteriaBuilder cb = session.getCriteriaBuilder();
-            
-            // Primero calculamos el promedio
-            CriteriaQuery<Double> avgQuery = cb.createQuery(Double.class);
-            Root<Producto> avgRoot = avgQuery.from(Producto.class);
-            avgQuery.select(cb.avg(avgRoot.get("precio")));
-            Double precioPromedio = session.createQuery(avgQuery).getSingleResult();
-            
+        return ControlDeCarga.ejecutar("obtenerProductosPrecioMayorPromedio", () -> {
+            // Primero calculamos el promedio a partir de la suma y la cantidad de cada shard
+            BigDecimal suma = BigDecimal.ZERO;
+            long cantidad = 0;
+            for (List<Object[]> totales : enTodosLosShards(session -> {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                CriteriaQuery<Object[]> totalQuery = cb.createQuery(Object[].class);
+                Root<Producto> totalRoot = totalQuery.from(Producto.class);
+                totalQuery.multiselect(cb.sum(totalRoot.<BigDecimal>get("precio")), cb.count(totalRoot.get("precio")));
+                return Collections.singletonList(session.createQuery(totalQuery).getSingleResult());
+            })) {
+                Object[] fila = totales.get(0);
+                if (fila[0] != null) {
+                    suma = suma.add((BigDecimal) fila[0]);
+                    cantidad += (Long) fila[1];
+                }
+            }
+            if (cantidad == 0) {
+                return new ArrayList<>();
+            }
+            BigDecimal precioPromedio = suma.divide(BigDecimal.valueOf(cantidad), MathContext.DECIMAL64);
+
             // Luego obtenemos los productos con precio mayor al promedio
-            CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
-            Root<Producto> producto = query.from(Producto.class);
-            
-            query.select(producto)
-                 .where(cb.gt(producto.get("precio"), precioPromedio));
-            
-            List<Producto> productos = session.createQuery(query).getResultList();
-            return productos.stream()
-                          .map(ProductoDTO::fromEntity)
-                          .collect(Collectors.toList());
-        }
+            return unir(enTodosLosShards(session -> {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
+                Root<Producto> producto = query.from(Producto.class);
+
+                query.select(producto)
+                     .where(cb.gt(producto.get("precio"), precioPromedio));
+
+                return aDTOs(session.createQuery(query).getResultList());
+            }));
+        });
     }
 
     // 10. Consulta de Productos con Stock Bajo por Categoría
     public List<ProductoDTO> obtenerProductosStockBajoPorCategoria(String nombreCategoria, int stockMinimo) {
-        try (Session session = HibernateUtil.getSession()) {
+        return ControlDeCarga.ejecutar("obtenerProductosStockBajoPorCategoria", () -> enShardDeCategoria(nombreCategoria, (session, categoriaIds) -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
             Root<Producto> producto = query.from(Producto.class);
-            Join<Producto, Categoria> categoria = producto.join("categoria");
-            
+
             query.select(producto)
                  .where(
                      cb.and(
-                         cb.equal(categoria.get("nombre"), nombreCategoria),
+                         producto.get("categoria").get("id").in(categoriaIds),
                          cb.lt(producto.get("stock"), stockMinimo)
                      )
                  );
-            
-            List<Producto> productos = session.createQuery(query).getResultList();
-            return productos.stream()
-                          .map(ProductoDTO::fromEntity)
-                          .collect(Collectors.toList());
+
+            return aDTOs(session.createQuery(query).getResultList());
+        }));
+    }
+
+    // 11. Top N Productos más Caros por Categoría
+    public List<ProductoDTO> obtenerTopProductosPorCategoria(int limitePorCategoria) {
+        return ControlDeCarga.ejecutar("obtenerTopProductosPorCategoria", () -> {
+            if (limitePorCategoria <= 0) {
+                throw new IllegalArgumentException("El límite por categoría debe ser mayor a cero");
+            }
+            // Cada categoría vive completa en un único shard, así que su top N ya es definitivo
+            return unirPorCategoriaYPrecio(enTodosLosShards(session ->
+                    aDTOs(consultarTopProductosPorCategoria(session, limitePorCategoria))), 0);
+        });
+    }
+
+    // 12. Categorías con Cantidad de Productos y Vista Previa Acotada
+    public List<CategoriaResumenDTO> obtenerCategoriasConCantidadProductos(int limitePreview) {
+        return ControlDeCarga.ejecutar("obtenerCategoriasConCantidadProductos", () -> {
+            List<List<CategoriaResumenDTO>> porShard = enTodosLosShards(session -> {
+                // Las dos consultas en una transacción de lectura, para que vean el mismo estado de la base
+                session.setDefaultReadOnly(true);
+                Transaction transaction = session.beginTransaction();
+                try {
+                    CriteriaBuilder cb = session.getCriteriaBuilder();
+                    CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+                    Root<Categoria> categoria = query.from(Categoria.class);
+                    Join<Categoria, Producto> producto = categoria.join("productos", jakarta.persistence.criteria.JoinType.LEFT);
+
+                    query.multiselect(categoria, cb.count(producto))
+                         .groupBy(categoria)
+                         .orderBy(cb.asc(categoria.get("nombre")));
+
+                    Map<Integer, CategoriaResumenDTO> resumenes = new LinkedHashMap<>();
+                    for (Object[] fila : session.createQuery(query).getResultList()) {
+                        CategoriaResumenDTO dto = CategoriaResumenDTO.fromEntity((Categoria) fila[0], (Long) fila[1]);
+                        resumenes.put(dto.getId(), dto);
+                    }
+
+                    // Una sola consulta para la vista previa de todas las categorías; las categorías ya están en la sesión
+                    if (limitePreview > 0) {
+                        for (Producto p : consultarTopProductosPorCategoria(session, limitePreview)) {
+                            // Con aislamiento READ COMMITTED puede aparecer una categoría creada entre las dos consultas
+                            CategoriaResumenDTO resumen = resumenes.get(p.getCategoria().getId());
+                            if (resumen != null) {
+                                resumen.getProductos().add(ProductoDTO.fromEntity(p));
+                            }
+                        }
+                    }
+                    transaction.commit();
+                    return new ArrayList<>(resumenes.values());
+                } catch (RuntimeException e) {
+                    if (transaction.isActive()) {
+                        transaction.rollback();
+                    }
+                    throw e;
+                }
+            });
+            if (porShard.size() == 1) {
+                return porShard.get(0);
+            }
+
+            // Las categorías están replicadas: se suman las cantidades y se juntan las vistas previas
+            Map<Integer, CategoriaResumenDTO> resumenes = new LinkedHashMap<>();
+            for (List<CategoriaResumenDTO> shard : porShard) {
+                for (CategoriaResumenDTO dto : shard) {
+                    CategoriaResumenDTO acumulado = resumenes.putIfAbsent(dto.getId(), dto);
+                    if (acumulado != null) {
+                        acumulado.setCantidadProductos(acumulado.getCantidadProductos() + dto.getCantidadProductos());
+                        acumulado.getProductos().addAll(dto.getProductos());
+                    }
+                }
+            }
+            for (CategoriaResumenDTO dto : resumenes.values()) {
+                dto.getProductos().sort(Comparator.comparing(ProductoDTO::getPrecio, Comparator.nullsLast(Comparator.reverseOrder())));
+                if (dto.getProductos().size() > limitePreview) {
+                    dto.setProductos(new ArrayList<>(dto.getProductos().subList(0, limitePreview)));
+                }
+            }
+            return new ArrayList<>(resumenes.values());
+        });
+    }
+
+    // 13. Listado de Categorías
+    public List<CategoriaDTO> obtenerCategorias() {
+        return ControlDeCarga.ejecutar("obtenerCategorias", () -> {
+            // Las categorías están replicadas en todos los shards
+            return EjecucionEnShards.enShard(0, session -> {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                CriteriaQuery<Categoria> query = cb.createQuery(Categoria.class);
+                Root<Categoria> categoria = query.from(Categoria.class);
+
+                query.select(categoria)
+                     .orderBy(cb.asc(categoria.get("id")));
+
+                return session.createQuery(query).getResultList().stream()
+                              .map(CategoriaDTO::fromEntity)
+                              .collect(Collectors.toList());
+            });
+        });
+    }
+
+    // 14. Productos Modificados desde una Fecha (inclusive); sin fecha devuelve todo el catálogo
+    public List<ProductoDTO> obtenerProductosModificadosDesde(LocalDateTime desde) {
+        return ControlDeCarga.ejecutar("obtenerProductosModificadosDesde", () -> unir(enTodosLosShards(session -> {
+            CriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
+            Root<Producto> producto = query.from(Producto.class);
+            producto.fetch("categoria", jakarta.persistence.criteria.JoinType.LEFT);
+
+            query.select(producto);
+            if (desde != null) {
+                query.where(cb.greaterThanOrEqualTo(producto.get("fechaModificacion"), desde));
+            }
+
+            return aDTOs(session.createQuery(query).getResultList());
+        })));
+    }
+
+    // 15. Búsqueda Paginada con Facetas
+    public ResultadoBusquedaDTO buscarProductosConFacetas(FiltroBusquedaDTO filtro, int pagina, int tamanioPagina) {
+        return ControlDeCarga.ejecutar("buscarProductosConFacetas", () -> {
+            if (pagina < 0 || tamanioPagina <= 0) {
+                throw new IllegalArgumentException("Página o tamaño de página inválidos");
+            }
+            List<Integer> categoriaIds = null;
+            if (filtro.getCategoria() != null) {
+                categoriaIds = DiccionarioCategorias.obtenerIds(filtro.getCategoria());
+                if (categoriaIds.isEmpty()) {
+                    ResultadoBusquedaDTO vacio = new ResultadoBusquedaDTO();
+                    vacio.setPagina(pagina);
+                    vacio.setTamanioPagina(tamanioPagina);
+                    return vacio;
+                }
+            }
+            CondicionBusqueda condicion = condicionBusqueda(filtro, categoriaIds);
+            // Filtrando por categoría basta con el shard que la contiene, si todas las del nombre están en el mismo
+            Integer shardUnico = categoriaIds == null ? null : shardComun(categoriaIds);
+            boolean variosShards = shardUnico == null && HibernateUtil.getCantidadShards() > 1;
+
+            Function<Session, ParcialBusqueda> busqueda = session -> {
+                // Facetas: las de rangos acotados se cuentan con sumas condicionales en el mismo GROUP BY de categoría,
+                // así una sola pasada por las filas filtradas da categoría, precio y stock. El mes no tiene cantidad
+                // acotada de valores y va en un segundo GROUP BY, enviado junto con UNION ALL
+                org.hibernate.query.Query<Object[]> facetas = session.createQuery(
+                        "select " + FACETA_CATEGORIA + ", c.nombre, 0, 0, count(p)" + CONTEOS_PRECIO + CONTEOS_STOCK
+                      + " from Producto p left join p.categoria c" + condicion.where() + " group by c.nombre"
+                      + " union all select " + FACETA_MES + ", '', year(p.fechaIngreso), month(p.fechaIngreso), count(p)" + SIN_CONTEOS
+                      + " from Producto p" + condicion.where() + " group by year(p.fechaIngreso), month(p.fechaIngreso)", Object[].class);
+                condicion.parametros().forEach(facetas::setParameter);
+
+                // Con varios shards cada uno devuelve hasta el final de la página y la mezcla descarta el resto
+                org.hibernate.query.Query<Producto> query = session.createQuery(
+                        "select p from Producto p left join fetch p.categoria c" + condicion.where() + " order by p.id", Producto.class);
+                condicion.parametros().forEach(query::setParameter);
+                query.setFirstResult(variosShards ? 0 : pagina * tamanioPagina)
+                     .setMaxResults(variosShards ? (pagina + 1) * tamanioPagina : tamanioPagina);
+
+                return new ParcialBusqueda(aDTOs(query.getResultList()), facetas.getResultList());
+            };
+            List<ParcialBusqueda> parciales = shardUnico == null
+                    ? EjecucionEnShards.enTodos(busqueda)
+                    : List.of(EjecucionEnShards.enShard(shardUnico, busqueda));
+
+            ResultadoBusquedaDTO resultado = new ResultadoBusquedaDTO();
+            resultado.setPagina(pagina);
+            resultado.setTamanioPagina(tamanioPagina);
+            if (variosShards) {
+                List<ProductoDTO> primeros = unirOrdenado(parciales.stream().map(ParcialBusqueda::productos).toList(),
+                                                          Comparator.comparing(ProductoDTO::getId), (pagina + 1) * tamanioPagina);
+                resultado.setProductos(new ArrayList<>(primeros.subList(Math.min(primeros.size(), pagina * tamanioPagina), primeros.size())));
+            } else {
+                resultado.setProductos(parciales.get(0).productos());
+            }
+
+            for (String rango : RANGOS_PRECIO) {
+                resultado.getPorRangoPrecio().put(rango, 0L);
+            }
+            for (String rango : RANGOS_STOCK) {
+                resultado.getPorRangoStock().put(rango, 0L);
+            }
+            Map<String, Long> porCategoria = new java.util.TreeMap<>();
+            Map<String, Long> porMes = new java.util.TreeMap<>();
+            long total = 0;
+            for (ParcialBusqueda parcial : parciales) {
+                for (Object[] fila : parcial.facetas()) {
+                    long cantidad = (Long) fila[4];
+                    if ((Integer) fila[0] == FACETA_CATEGORIA) {
+                        // Cada producto aparece una vez en cada faceta; la de categoría da el total
+                        total += cantidad;
+                        porCategoria.merge(fila[1] == null ? SIN_DATO : (String) fila[1], cantidad, Long::sum);
+                        sumarRangos(resultado.getPorRangoPrecio(), RANGOS_PRECIO, fila, COLUMNA_PRECIOS);
+                        sumarRangos(resultado.getPorRangoStock(), RANGOS_STOCK, fila, COLUMNA_STOCKS);
+                    } else {
+                        Integer anio = (Integer) fila[2];
+                        porMes.merge(anio == null ? SIN_DATO : String.format("%04d-%02d", anio, (Integer) fila[3]),
+                                     cantidad, Long::sum);
+                    }
+                }
+            }
+            resultado.setTotal(total);
+            resultado.setPorCategoria(new LinkedHashMap<>(porCategoria));
+            resultado.setPorMesIngreso(new LinkedHashMap<>(porMes));
+            return resultado;
+        });
+    }
+
+    private record ParcialBusqueda(List<ProductoDTO> productos, List<Object[]> facetas) {}
+
+    private record CondicionBusqueda(String where, Map<String, Object> parametros) {}
+
+    private static CondicionBusqueda condicionBusqueda(FiltroBusquedaDTO filtro, List<Integer> categoriaIds) {
+        List<String> condiciones = new ArrayList<>();
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        if (filtro.getNombre() != null) {
+            condiciones.add("p.nombre like :nombre");
+            parametros.put("nombre", "%" + filtro.getNombre() + "%");
+        }
+        if (categoriaIds != null) {
+            condiciones.add("p.categoria.id in :categoriaIds");
+            parametros.put("categoriaIds", categoriaIds);
+        }
+        if (filtro.getPrecioMinimo() != null) {
+            condiciones.add("p.precio >= :precioMinimo");
+            parametros.put("precioMinimo", filtro.getPrecioMinimo());
+        }
+        if (filtro.getPrecioMaximo() != null) {
+            condiciones.add("p.precio <= :precioMaximo");
+            parametros.put("precioMaximo", filtro.getPrecioMaximo());
+        }
+        if (filtro.getStockMinimo() != null) {
+            condiciones.add("p.stock >= :stockMinimo");
+            parametros.put("stockMinimo", filtro.getStockMinimo());
+        }
+        if (filtro.getStockMaximo() != null) {
+            condiciones.add("p.stock <= :stockMaximo");
+            parametros.put("stockMaximo", filtro.getStockMaximo());
+        }
+        String where = condiciones.isEmpty() ? "" : " where " + String.join(" and ", condiciones);
+        return new CondicionBusqueda(where, parametros);
+    }
+
+    // Una columna ", sum(case when <condición> then 1 else 0 end)" por rango, empezando por el de valores nulos;
+    // los límites van como literales porque son fijos
+    private static String conteosPorRango(String campo, String... limites) {
+        StringBuilder conteos = new StringBuilder(conteo(campo + " is null"));
+        for (int i = 0; i <= limites.length; i++) {
+            String condicion = i == 0 ? campo + " < " + limites[0]
+                    : i == limites.length ? campo + " >= " + limites[i - 1]
+                    : campo + " >= " + limites[i - 1] + " and " + campo + " < " + limites[i];
+            conteos.append(conteo(condicion));
+        }
+        return conteos.toString();
+    }
+
+    private static String conteo(String condicion) {
+        return ", sum(case when " + condicion + " then 1 else 0 end)";
+    }
+
+    // Suma los conteos de una fila de facetas a cada rango; "Sin dato" sólo aparece si tiene productos
+    private static void sumarRangos(Map<String, Long> porRango, String[] etiquetas, Object[] fila, int columna) {
+        long sinDato = (Long) fila[columna];
+        if (sinDato > 0) {
+            porRango.merge(SIN_DATO, sinDato, Long::sum);
+        }
+        for (int i = 0; i < etiquetas.length; i++) {
+            porRango.merge(etiquetas[i], (Long) fila[columna + 1 + i], Long::sum);
+        }
+    }
+
+    private List<ProductoDTO> consultarOrdenadosPorCategoriaYPrecio(int limite) {
+        // Cada shard devuelve sus primeros 'limite' productos ya ordenados; la mezcla conserva el orden
+        return unirPorCategoriaYPrecio(enTodosLosShards(session -> {
+            CriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
+            Root<Producto> producto = query.from(Producto.class);
+            Join<Producto, Categoria> categoria = producto.join("categoria");
+
+            query.select(producto)
+                 .orderBy(
+                     cb.asc(categoria.get("nombre")),
+                     cb.asc(categoria.get("id")),
+                     cb.desc(producto.get("precio"))
+                 );
+
+            org.hibernate.query.Query<Producto> consulta = session.createQuery(query);
+            if (limite > 0) {
+                consulta.setMaxResults(limite);
+            }
+            return aDTOs(consulta.getResultList());
+        }), limite);
+    }
+
+    private List<Producto> consultarTopProductosPorCategoria(Session session, int limitePorCategoria) {
+        // ROW_NUMBER() recorre idx_productos_categoria_precio y corta cada partición en el límite
+        String sql = "SELECT p.* FROM ("
+                   + "  SELECT pr.*, ROW_NUMBER() OVER (PARTITION BY pr.categoria_id ORDER BY pr.precio DESC) AS rn"
+                   + "  FROM Productos pr WHERE pr.categoria_id IS NOT NULL"
+                   + ") p JOIN Categorias c ON c.id = p.categoria_id"
+                   + " WHERE p.rn <= :limite"
+                   + " ORDER BY c.nombre, c.id, p.precio DESC";
+
+        return session.createNativeQuery(sql, Producto.class)
+                      .setParameter("limite", limitePorCategoria)
+                      .getResultList();
+    }
+
+    private static List<ProductoDTO> aDTOs(List<Producto> productos) {
+        return productos.stream()
+                      .map(ProductoDTO::fromEntity)
+                      .collect(Collectors.toList());
+    }
+
+    private <T> List<List<T>> enTodosLosShards(Function<Session, List<T>> consulta) {
+        return EjecucionEnShards.enTodos(consulta);
+    }
+
+    // Ejecuta la consulta con los ids de todas las categorías con ese nombre, sólo en el shard que las guarda
+    // si están todas en el mismo; si no existe ninguna no consulta la base
+    private List<ProductoDTO> enShardDeCategoria(String nombreCategoria, BiFunction<Session, List<Integer>, List<ProductoDTO>> consulta) {
+        List<Integer> categoriaIds = DiccionarioCategorias.obtenerIds(nombreCategoria);
+        if (categoriaIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Integer shard = shardComun(categoriaIds);
+        if (shard == null) {
+            return unir(enTodosLosShards(session -> consulta.apply(session, categoriaIds)));
+        }
+        return EjecucionEnShards.enShard(shard, session -> consulta.apply(session, categoriaIds));
+    }
+
+    // El shard de las categorías si todas están en el mismo, o null si están repartidas
+    private static Integer shardComun(List<Integer> categoriaIds) {
+        int shard = HibernateUtil.getShardDeCategoria(categoriaIds.get(0));
+        for (Integer categoriaId : categoriaIds) {
+            if (HibernateUtil.getShardDeCategoria(categoriaId) != shard) {
+                return null;
+            }
+        }
+        return shard;
+    }
+
+    private static <T> List<T> unir(List<List<T>> porShard) {
+        if (porShard.size() == 1) {
+            return porShard.get(0);
+        }
+        List<T> resultado = new ArrayList<>();
+        porShard.forEach(resultado::addAll);
+        return resultado;
+    }
+
+    // Mezcla listas ordenadas como la consulta 5 (c.nombre, c.id, precio descendente).
+    // El orden de los nombres depende de la collation de la base (en MySQL ignora mayúsculas y acentos),
+    // así que se compara la posición de cada categoría en ese orden y no los nombres con compareTo
+    private static List<ProductoDTO> unirPorCategoriaYPrecio(List<List<ProductoDTO>> porShard, int limite) {
+        if (porShard.size() == 1) {
+            return porShard.get(0);
+        }
+        Set<Integer> categoriaIds = new HashSet<>();
+        porShard.forEach(lista -> lista.forEach(p -> categoriaIds.add(p.getCategoria().getId())));
+        Map<Integer, Integer> posiciones = DiccionarioCategorias.obtenerPosiciones(categoriaIds);
+        Comparator<ProductoDTO> orden =
+                Comparator.comparing((ProductoDTO p) -> posiciones.getOrDefault(p.getCategoria().getId(), Integer.MAX_VALUE))
+                          .thenComparing(p -> p.getCategoria().getId())
+                          .thenComparing(ProductoDTO::getPrecio, Comparator.nullsLast(Comparator.reverseOrder()));
+        return unirOrdenado(porShard, orden, limite);
+    }
+
+    // Mezcla listas ya ordenadas con el mismo criterio; un límite de 0 significa sin límite
+    private static <T> List<T> unirOrdenado(List<List<T>> porShard, Comparator<T> orden, int limite) {
+        if (porShard.size() == 1) {
+            return porShard.get(0);
+        }
+        record Cursor<T>(List<T> lista, int posicion) {
+            T actual() {
+                return lista.get(posicion);
+            }
+        }
+        PriorityQueue<Cursor<T>> cola = new PriorityQueue<>((a, b) -> orden.compare(a.actual(), b.actual()));
+        for (List<T> lista : porShard) {
+            if (!lista.isEmpty()) {
+                cola.add(new Cursor<>(lista, 0));
+            }
+        }
+        List<T> resultado = new ArrayList<>();
+        while (!cola.isEmpty() && (limite <= 0 || resultado.size() < limite)) {
+            Cursor<T> cursor = cola.poll();
+            resultado.add(cursor.actual());
+            if (cursor.posicion() + 1 < cursor.lista().size()) {
+                cola.add(new Cursor<>(cursor.lista(), cursor.posicion() + 1));
+            }
         }
+        return resultado;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package org.app.services;
+
+/**
+ * La consulta no terminó antes del plazo de la llamada y fue cancelada.
+ */
+public class PlazoVencidoException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public PlazoVencidoException(String message) {
+        super(message);
+    }
+
+    public PlazoVencidoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
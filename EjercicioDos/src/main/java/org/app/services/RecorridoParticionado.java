@@ -0,0 +1,154 @@
+package org.app.services;
+
+import org.app.dto.ProductoDTO;
+import org.app.models.Producto;
+import org.app.utils.HibernateUtil;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Recorre todo el catálogo de productos en paralelo, para procesos nocturnos
+ * (exportaciones, revaluaciones, controles de consistencia).
+ * El rango de ids de cada shard se parte en tramos; cada tramo se lee con su propia sesión
+ * y un cursor de sólo avance, se acumula por separado y al final se combinan los resultados.
+ * Un tramo que falla se vuelve a recorrer desde el principio con un acumulador nuevo.
+ */
+public class RecorridoParticionado {
+    // Filas que se piden al driver por viaje y cada cuántas filas se vacía la sesión
+    // (en MySQL el fetch size sólo se respeta con useCursorFetch=true, que agregan las sesiones de recorrido)
+    private static final int TAMANIO_FETCH = 500;
+    private static final int FILAS_POR_LIMPIEZA = 1000;
+
+    public record Progreso(int particionesTerminadas, int particionesTotales, long filasProcesadas) {}
+
+    private record Particion(int shard, long desde, long hasta) {}
+
+    private final int particionesPorShard;
+    private final int paralelismo;
+    private final int maximoReintentos;
+
+    /**
+     * @param particionesPorShard En cuántos tramos de ids se parte cada shard.
+     * @param paralelismo         Cuántos tramos se recorren a la vez; conviene no superar el pool de conexiones.
+     * @param maximoReintentos    Cuántas veces se reintenta un tramo que falló.
+     */
+    public RecorridoParticionado(int particionesPorShard, int paralelismo, int maximoReintentos) {
+        if (particionesPorShard <= 0 || paralelismo <= 0 || maximoReintentos < 0) {
+            throw new IllegalArgumentException("Parámetros de recorrido inválidos");
+        }
+        this.particionesPorShard = particionesPorShard;
+        this.paralelismo = paralelismo;
+        this.maximoReintentos = maximoReintentos;
+    }
+
+    /**
+     * @param inicial   Crea el acumulador vacío de cada tramo.
+     * @param acumular  Agrega un producto al acumulador del tramo.
+     * @param combinar  Combina los acumuladores de dos tramos.
+     * @param progreso  Recibe un aviso cada vez que termina un tramo; puede ser null.
+     * @return La combinación de los acumuladores de todos los tramos, en orden de shard e id.
+     */
+    public <A> A recorrer(Supplier<A> inicial, BiFunction<A, ProductoDTO, A> acumular,
+                          BinaryOperator<A> combinar, Consumer<Progreso> progreso) {
+        List<Particion> particiones = particionar();
+        AtomicInteger terminadas = new AtomicInteger();
+        AtomicLong filas = new AtomicLong();
+
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try {
+            List<ForkJoinTask<A>> tareas = new ArrayList<>();
+            for (Particion particion : particiones) {
+                tareas.add(pool.submit(() -> {
+                    long[] filasTramo = new long[1];
+                    A resultado = recorrerConReintentos(particion, inicial, acumular, filasTramo);
+                    long total = filas.addAndGet(filasTramo[0]);
+                    int listas = terminadas.incrementAndGet();
+                    if (progreso != null) {
+                        progreso.accept(new Progreso(listas, particiones.size(), total));
+                    }
+                    return resultado;
+                }));
+            }
+
+            A combinado = inicial.get();
+            for (ForkJoinTask<A> tarea : tareas) {
+                combinado = combinar.apply(combinado, tarea.join());
+            }
+            return combinado;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private <A> A recorrerConReintentos(Particion particion, Supplier<A> inicial,
+                                        BiFunction<A, ProductoDTO, A> acumular, long[] filasTramo) {
+        for (int intento = 0; ; intento++) {
+            try {
+                filasTramo[0] = 0;
+                return recorrerParticion(particion, inicial.get(), acumular, filasTramo);
+            } catch (RuntimeException e) {
+                if (intento >= maximoReintentos) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private <A> A recorrerParticion(Particion particion, A acumulado,
+                                    BiFunction<A, ProductoDTO, A> acumular, long[] filasTramo) {
+        try (Session session = HibernateUtil.getSessionDeRecorrido(particion.shard())) {
+            session.setDefaultReadOnly(true);
+            try (ScrollableResults<Producto> cursor = session
+                    .createQuery("select p from Producto p left join fetch p.categoria"
+                               + " where p.id >= :desde and p.id < :hasta order by p.id", Producto.class)
+                    .setParameter("desde", (int) particion.desde())
+                    .setParameter("hasta", (int) Math.min(Integer.MAX_VALUE, particion.hasta()))
+                    .setFetchSize(TAMANIO_FETCH)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (cursor.next()) {
+                    acumulado = acumular.apply(acumulado, ProductoDTO.fromEntity(cursor.get()));
+                    if (++filasTramo[0] % FILAS_POR_LIMPIEZA == 0) {
+                        session.clear();
+                    }
+                }
+            }
+            return acumulado;
+        }
+    }
+
+    // Parte [min(id), max(id)] de cada shard en tramos de igual ancho; el último tramo incluye max(id)
+    private List<Particion> particionar() {
+        List<long[]> extremos = EjecucionEnShards.enTodos(session -> {
+            Object[] fila = session.createQuery("select min(p.id), max(p.id) from Producto p", Object[].class)
+                                   .getSingleResult();
+            return fila[0] == null ? null : new long[]{(Integer) fila[0], (Integer) fila[1]};
+        });
+
+        List<Particion> particiones = new ArrayList<>();
+        for (int shard = 0; shard < extremos.size(); shard++) {
+            long[] rango = extremos.get(shard);
+            if (rango == null) {
+                continue;
+            }
+            long minimo = rango[0];
+            long hasta = rango[1] + 1;
+            long ancho = Math.max(1, (hasta - minimo + particionesPorShard - 1) / particionesPorShard);
+            for (long desde = minimo; desde < hasta; desde += ancho) {
+                particiones.add(new Particion(shard, desde, Math.min(hasta, desde + ancho)));
+            }
+        }
+        return particiones;
+    }
+}
@@ -0,0 +1,11 @@
+package org.app.services;
+
+/**
+ * Resultado de una llamada a Logica, tal como se cuenta en sus estadísticas.
+ */
+public enum ResultadoConsulta {
+    EXITOSA,
+    PLAZO_VENCIDO,
+    RECHAZADA,
+    ERROR
+}
@@ -0,0 +1,435 @@
+package org.app.services;
+
+import org.app.dto.CategoriaDTO;
+import org.app.dto.ProductoDTO;
+import org.app.models.Producto;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copia binaria del catálogo (categorías, productos y marca de agua) que se lee con memory-mapping.
+ * Al arrancar se abre el archivo y se sirven lecturas de inmediato; luego {@link #ponerseAlDia(Logica)}
+ * trae de la base sólo los productos modificados desde la marca de agua, y quita los borrados comparando
+ * cantidad y suma de ids por tramo contra la base (sólo se piden los ids de los tramos que no coinciden).
+ *
+ * <pre>
+ * cabecera:   int magia, int version, long marcaAguaSegundos, int marcaAguaNanos,
+ *             int cantidadCategorias, int cantidadProductos, long offsetIndice
+ * categorías: int id, texto nombre
+ * productos:  int id, byte presentes, [int categoriaId], texto nombre, [byte escala, long sinEscala],
+ *             [int stock], [int fechaIngresoEpochDia], [long segundos, int nanos de modificación]
+ * índice:     (int id, int offset) por producto, ordenado por id
+ * texto:      short largo (-1 si es null) seguido de los bytes UTF-8
+ * </pre>
+ */
+public class SnapshotCatalogo {
+    private static final int MAGIA = 0x43415431; // "CAT1"
+    private static final int VERSION = 2;
+    private static final int LARGO_CABECERA = 36;
+
+    private static final int TIENE_CATEGORIA = 1;
+    private static final int TIENE_PRECIO = 1 << 1;
+    private static final int TIENE_STOCK = 1 << 2;
+    private static final int TIENE_FECHA_INGRESO = 1 << 3;
+    private static final int TIENE_FECHA_MODIFICACION = 1 << 4;
+
+    /**
+     * Cuánto antes de la marca de agua se vuelve a leer al ponerse al día.
+     * Debe superar la transacción de escritura más larga.
+     */
+    public static final Duration VENTANA_RELECTURA = Duration.ofMinutes(5);
+
+    // Ancho de los tramos de ids que se comparan con la base para detectar productos borrados
+    private static final int ANCHO_TRAMO = 4096;
+    // Cantidad de ids por IN al traer productos que faltan
+    private static final int TAMANIO_LOTE = 1000;
+
+    private final MappedByteBuffer buffer;
+    private final int cantidadProductos;
+    private final int offsetIndice;
+    private final Map<Integer, CategoriaDTO> categorias = new ConcurrentHashMap<>();
+    private final Map<Integer, ProductoDTO> cambios = new ConcurrentHashMap<>();
+    // Productos del archivo que ya no están en la base
+    private final Set<Integer> eliminados = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime marcaAgua;
+
+    private SnapshotCatalogo(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIA || buffer.getInt(4) != VERSION) {
+            throw new IOException("El archivo no es un snapshot de catálogo válido");
+        }
+        long segundos = buffer.getLong(8);
+        int nanos = buffer.getInt(16);
+        this.marcaAgua = segundos == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC);
+        int cantidadCategorias = buffer.getInt(20);
+        this.cantidadProductos = buffer.getInt(24);
+        this.offsetIndice = Math.toIntExact(buffer.getLong(28));
+
+        int posicion = LARGO_CABECERA;
+        for (int i = 0; i < cantidadCategorias; i++) {
+            CategoriaDTO categoria = new CategoriaDTO();
+            categoria.setId(buffer.getInt(posicion));
+            posicion += 4;
+            categoria.setNombre(leerTexto(posicion));
+            posicion += largoTexto(posicion);
+            categorias.put(categoria.getId(), categoria);
+        }
+    }
+
+    /**
+     * Lee el catálogo completo a través de Logica y lo guarda en el archivo indicado.
+     * El archivo se escribe aparte y se reemplaza al final, para no dejar snapshots a medias.
+     */
+    public static void escribir(Path archivo, Logica logica) throws IOException {
+        // La hora de la base se toma antes de leer, así nada de lo escrito durante la lectura queda detrás de la marca
+        LocalDateTime inicio = EjecucionEnShards.enShard(0, session ->
+                session.createQuery("select local_datetime", LocalDateTime.class).getSingleResult());
+        escribir(archivo, logica.obtenerCategorias(), logica.obtenerProductosModificadosDesde(null), inicio);
+    }
+
+    // Si ningún producto tiene fecha_modificacion (filas anteriores a la columna), la marca de agua es el inicio
+    // de la lectura; sin ella cada ponerseAlDia volvería a leer el catálogo completo
+    static void escribir(Path archivo, List<CategoriaDTO> categorias, List<ProductoDTO> productos,
+                         LocalDateTime inicio) throws IOException {
+        List<ProductoDTO> ordenados = new ArrayList<>(productos);
+        ordenados.sort(Comparator.comparing(ProductoDTO::getId));
+        LocalDateTime marcaAgua = ordenados.stream()
+                                           .map(ProductoDTO::getFechaModificacion)
+                                           .filter(fecha -> fecha != null)
+                                           .max(Comparator.naturalOrder())
+                                           .orElse(inicio);
+
+        Path temporal = Files.createTempFile(archivo.toAbsolutePath().getParent(), "catalogo", ".tmp");
+        int[] offsets = new int[ordenados.size()];
+        long offsetIndice;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+            out.write(new byte[LARGO_CABECERA]);
+            for (CategoriaDTO categoria : categorias) {
+                out.writeInt(categoria.getId());
+                escribirTexto(out, categoria.getNombre());
+            }
+            for (int i = 0; i < ordenados.size(); i++) {
+                offsets[i] = out.size();
+                escribirProducto(out, ordenados.get(i));
+            }
+            offsetIndice = out.size();
+            for (int i = 0; i < ordenados.size(); i++) {
+                out.writeInt(ordenados.get(i).getId());
+                out.writeInt(offsets[i]);
+            }
+        }
+
+        ByteBuffer cabecera = ByteBuffer.allocate(LARGO_CABECERA);
+        cabecera.putInt(MAGIA).putInt(VERSION);
+        if (marcaAgua == null) {
+            cabecera.putLong(Long.MIN_VALUE).putInt(0);
+        } else {
+            cabecera.putLong(marcaAgua.toEpochSecond(ZoneOffset.UTC)).putInt(marcaAgua.getNano());
+        }
+        cabecera.putInt(categorias.size()).putInt(ordenados.size()).putLong(offsetIndice).flip();
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+            canal.write(cabecera, 0);
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Abre un snapshot con memory-mapping. Sólo se decodifican las categorías;
+     * los productos se leen del archivo a medida que se piden.
+     */
+    public static SnapshotCatalogo abrir(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return new SnapshotCatalogo(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+        }
+    }
+
+    /**
+     * Igual que {@link #ponerseAlDia(Logica, Duration)} con una ventana de relectura de {@link #VENTANA_RELECTURA}.
+     */
+    public int ponerseAlDia(Logica logica) {
+        return ponerseAlDia(logica, VENTANA_RELECTURA);
+    }
+
+    /**
+     * Trae de la base los productos modificados desde la marca de agua menos la ventana indicada,
+     * y las categorías actuales; luego quita los productos borrados y trae los que falten (por ejemplo,
+     * filas insertadas sin fecha_modificacion).
+     * fecha_modificacion es el momento del UPDATE, no el del commit: una transacción que escribió antes
+     * de la marca pero confirmó después sólo se ve si la ventana es mayor que su duración.
+     *
+     * @return La cantidad de productos leídos o quitados, incluidos los que se releen dentro de la ventana.
+     */
+    public synchronized int ponerseAlDia(Logica logica, Duration ventana) {
+        // Releer filas ya vistas no cambia nada; perder una confirmada tarde deja el snapshot viejo
+        LocalDateTime desde = marcaAgua == null ? null : marcaAgua.minus(ventana);
+        List<ProductoDTO> modificados = logica.obtenerProductosModificadosDesde(desde);
+        for (CategoriaDTO categoria : logica.obtenerCategorias()) {
+            categorias.put(categoria.getId(), categoria);
+        }
+        LocalDateTime nuevaMarca = marcaAgua;
+        for (ProductoDTO producto : modificados) {
+            guardarCambio(producto);
+            LocalDateTime fecha = producto.getFechaModificacion();
+            if (fecha != null && (nuevaMarca == null || fecha.isAfter(nuevaMarca))) {
+                nuevaMarca = fecha;
+            }
+        }
+        marcaAgua = nuevaMarca;
+        return modificados.size() + reconciliarIds();
+    }
+
+    // Compara cantidad y suma de ids por tramo con la base; en los tramos distintos quita los ids que la base
+    // ya no tiene y trae los que faltan. Un borrado siempre cambia la cantidad de su tramo.
+    private int reconciliarIds() {
+        String tramo = "p.id - mod(p.id, " + ANCHO_TRAMO + ")";
+        Map<Integer, long[]> enBase = new HashMap<>();
+        for (List<Object[]> filas : EjecucionEnShards.enTodos(session -> session.createQuery(
+                "select " + tramo + ", count(p), sum(p.id) from Producto p group by " + tramo, Object[].class).getResultList())) {
+            for (Object[] fila : filas) {
+                long[] resumen = enBase.computeIfAbsent((Integer) fila[0], t -> new long[2]);
+                resumen[0] += (Long) fila[1];
+                resumen[1] += (Long) fila[2];
+            }
+        }
+        Map<Integer, long[]> locales = new HashMap<>();
+        for (int id : idsLocales()) {
+            long[] resumen = locales.computeIfAbsent(id - Math.floorMod(id, ANCHO_TRAMO), t -> new long[2]);
+            resumen[0]++;
+            resumen[1] += id;
+        }
+
+        List<Integer> distintos = new ArrayList<>();
+        Set<Integer> tramos = new HashSet<>(enBase.keySet());
+        tramos.addAll(locales.keySet());
+        for (Integer inicio : tramos) {
+            if (!Arrays.equals(enBase.get(inicio), locales.get(inicio))) {
+                distintos.add(inicio);
+            }
+        }
+        if (distintos.isEmpty()) {
+            return 0;
+        }
+
+        Set<Integer> idsBase = new HashSet<>();
+        EjecucionEnShards.enTodos(session -> {
+            List<Integer> ids = new ArrayList<>();
+            for (Integer inicio : distintos) {
+                ids.addAll(session.createQuery("select p.id from Producto p where p.id >= :desde and p.id < :hasta", Integer.class)
+                                  .setParameter("desde", inicio)
+                                  .setParameter("hasta", inicio + ANCHO_TRAMO)
+                                  .getResultList());
+            }
+            return ids;
+        }).forEach(idsBase::addAll);
+        Set<Integer> tramosDistintos = new HashSet<>(distintos);
+        int cambiados = 0;
+        for (int id : idsLocales()) {
+            if (tramosDistintos.contains(id - Math.floorMod(id, ANCHO_TRAMO)) && !idsBase.remove(id)) {
+                cambios.remove(id);
+                eliminados.add(id);
+                cambiados++;
+            }
+        }
+        // Lo que queda en idsBase son productos que la base tiene y el snapshot no
+        List<Integer> faltantes = new ArrayList<>(idsBase);
+        for (int i = 0; i < faltantes.size(); i += TAMANIO_LOTE) {
+            List<Integer> lote = faltantes.subList(i, Math.min(faltantes.size(), i + TAMANIO_LOTE));
+            for (List<ProductoDTO> encontrados : EjecucionEnShards.enTodos(session -> session.createQuery(
+                    "select p from Producto p left join fetch p.categoria where p.id in :ids", Producto.class)
+                    .setParameterList("ids", lote)
+                    .getResultList().stream()
+                    .map(ProductoDTO::fromEntity)
+                    .toList())) {
+                encontrados.forEach(this::guardarCambio);
+                cambiados += encontrados.size();
+            }
+        }
+        return cambiados;
+    }
+
+    private void guardarCambio(ProductoDTO producto) {
+        cambios.put(producto.getId(), producto);
+        eliminados.remove(producto.getId());
+    }
+
+    // Los ids de los productos vigentes: los del archivo que no se borraron ni cambiaron, más los cambios
+    private List<Integer> idsLocales() {
+        List<Integer> ids = new ArrayList<>(cantidadProductos + cambios.size());
+        for (int i = 0; i < cantidadProductos; i++) {
+            int id = buffer.getInt(offsetIndice + i * 8);
+            if (!cambios.containsKey(id) && !eliminados.contains(id)) {
+                ids.add(id);
+            }
+        }
+        ids.addAll(cambios.keySet());
+        return ids;
+    }
+
+    public LocalDateTime getMarcaAgua() {
+        return marcaAgua;
+    }
+
+    public CategoriaDTO obtenerCategoria(Integer id) {
+        return categorias.get(id);
+    }
+
+    public List<CategoriaDTO> obtenerCategorias() {
+        List<CategoriaDTO> resultado = new ArrayList<>(categorias.values());
+        resultado.sort(Comparator.comparing(CategoriaDTO::getId));
+        return resultado;
+    }
+
+    /**
+     * Busca un producto por id: primero entre los cambios posteriores al snapshot y luego,
+     * con búsqueda binaria sobre el índice, en el archivo.
+     *
+     * @return El producto, o null si no existe.
+     */
+    public ProductoDTO obtenerProducto(int id) {
+        ProductoDTO cambiado = cambios.get(id);
+        if (cambiado != null) {
+            return cambiado;
+        }
+        if (eliminados.contains(id)) {
+            return null;
+        }
+        int desde = 0;
+        int hasta = cantidadProductos - 1;
+        while (desde <= hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int idMedio = buffer.getInt(offsetIndice + medio * 8);
+            if (idMedio < id) {
+                desde = medio + 1;
+            } else if (idMedio > id) {
+                hasta = medio - 1;
+            } else {
+                return leerProducto(buffer.getInt(offsetIndice + medio * 8 + 4));
+            }
+        }
+        return null;
+    }
+
+    public List<ProductoDTO> obtenerProductos() {
+        List<ProductoDTO> resultado = new ArrayList<>(cantidadProductos + cambios.size());
+        for (int i = 0; i < cantidadProductos; i++) {
+            int id = buffer.getInt(offsetIndice + i * 8);
+            if (!cambios.containsKey(id) && !eliminados.contains(id)) {
+                resultado.add(leerProducto(buffer.getInt(offsetIndice + i * 8 + 4)));
+            }
+        }
+        resultado.addAll(cambios.values());
+        return resultado;
+    }
+
+    private static void escribirProducto(DataOutputStream out, ProductoDTO producto) throws IOException {
+        int presentes = (producto.getCategoria() != null ? TIENE_CATEGORIA : 0)
+                      | (producto.getPrecio() != null ? TIENE_PRECIO : 0)
+                      | (producto.getStock() != null ? TIENE_STOCK : 0)
+                      | (producto.getFechaIngreso() != null ? TIENE_FECHA_INGRESO : 0)
+                      | (producto.getFechaModificacion() != null ? TIENE_FECHA_MODIFICACION : 0);
+
+        out.writeInt(producto.getId());
+        out.writeByte(presentes);
+        if ((presentes & TIENE_CATEGORIA) != 0) {
+            out.writeInt(producto.getCategoria().getId());
+        }
+        escribirTexto(out, producto.getNombre());
+        if ((presentes & TIENE_PRECIO) != 0) {
+            // precision = 10 en la columna, así que el valor sin escala entra en un long
+            out.writeByte(producto.getPrecio().scale());
+            out.writeLong(producto.getPrecio().unscaledValue().longValueExact());
+        }
+        if ((presentes & TIENE_STOCK) != 0) {
+            out.writeInt(producto.getStock());
+        }
+        if ((presentes & TIENE_FECHA_INGRESO) != 0) {
+            out.writeInt((int) producto.getFechaIngreso().toEpochDay());
+        }
+        if ((presentes & TIENE_FECHA_MODIFICACION) != 0) {
+            out.writeLong(producto.getFechaModificacion().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(producto.getFechaModificacion().getNano());
+        }
+    }
+
+    private ProductoDTO leerProducto(int posicion) {
+        ProductoDTO producto = new ProductoDTO();
+        producto.setId(buffer.getInt(posicion));
+        int presentes = buffer.get(posicion + 4);
+        posicion += 5;
+        if ((presentes & TIENE_CATEGORIA) != 0) {
+            CategoriaDTO categoria = categorias.get(buffer.getInt(posicion));
+            producto.setCategoria(categoria);
+            posicion += 4;
+        }
+        producto.setNombre(leerTexto(posicion));
+        posicion += largoTexto(posicion);
+        if ((presentes & TIENE_PRECIO) != 0) {
+            int escala = buffer.get(posicion);
+            producto.setPrecio(new BigDecimal(BigInteger.valueOf(buffer.getLong(posicion + 1)), escala));
+            posicion += 9;
+        }
+        if ((presentes & TIENE_STOCK) != 0) {
+            producto.setStock(buffer.getInt(posicion));
+            posicion += 4;
+        }
+        if ((presentes & TIENE_FECHA_INGRESO) != 0) {
+            producto.setFechaIngreso(LocalDate.ofEpochDay(buffer.getInt(posicion)));
+            posicion += 4;
+        }
+        if ((presentes & TIENE_FECHA_MODIFICACION) != 0) {
+            producto.setFechaModificacion(LocalDateTime.ofEpochSecond(buffer.getLong(posicion), buffer.getInt(posicion + 8), ZoneOffset.UTC));
+        }
+        return producto;
+    }
+
+    private static void escribirTexto(DataOutputStream out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private String leerTexto(int posicion) {
+        short largo = buffer.getShort(posicion);
+        if (largo < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[largo];
+        buffer.get(posicion + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int largoTexto(int posicion) {
+        return 2 + Math.max(0, buffer.getShort(posicion));
+    }
+}
@@ -0,0 +1,150 @@
+package org.app.utils;
+
+import org.app.services.EjecucionEnShards;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.text.Collator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resuelve nombres de categoría a ids sin ir a la base en cada consulta, y guarda el orden
+ * de las categorías por nombre según la collation de la base para mezclar resultados de varios shards.
+ * Las categorías son pocas, así que se cargan todas juntas. El nombre no es único: cada nombre
+ * resuelve a todas sus categorías, comparando como la collation de la columna Categorias.nombre
+ * (en MySQL, por ejemplo, utf8mb4_0900_ai_ci no distingue mayúsculas ni acentos; en H2 o con una
+ * collation binaria la comparación es exacta, como el join por nombre que reemplaza).
+ * Un nombre ausente de lo cargado no existe: se responde sin consultar la base.
+ * Se invalida al confirmarse cualquier escritura de Categoria en esta JVM (ver {@link InvalidadorCategorias}),
+ * al reconfigurar los shards y, para ver los cambios hechos desde otros nodos, al cumplirse su vigencia.
+ */
+public class DiccionarioCategorias {
+    private static final long VIGENCIA_NANOS = Duration.ofMinutes(1).toNanos();
+
+    // Lo cargado sólo vale mientras no haya invalidaciones posteriores a la que tenía al empezar la carga
+    private record Cargado(NavigableMap<String, List<Integer>> ids, Map<Integer, Integer> posiciones,
+                           long generacionShards, long invalidacion, long cargadoEn) {}
+
+    private static volatile Cargado cargado;
+    private static final AtomicLong invalidaciones = new AtomicLong();
+
+    private DiccionarioCategorias() {
+    }
+
+    /**
+     * @return Los ids de las categorías con ese nombre, ordenados; vacía si no existe ninguna.
+     */
+    public static List<Integer> obtenerIds(String nombre) {
+        if (nombre == null) {
+            return List.of();
+        }
+        return vigente().ids().getOrDefault(nombre, List.of());
+    }
+
+    /**
+     * @return La posición de cada categoría en el orden "c.nombre, c.id" de la base.
+     * Si alguna de las categorías pedidas no está en lo cargado, se recarga una vez.
+     */
+    public static Map<Integer, Integer> obtenerPosiciones(Collection<Integer> categoriaIds) {
+        Cargado actual = vigente();
+        if (!actual.posiciones().keySet().containsAll(categoriaIds)) {
+            invalidar();
+            actual = vigente();
+        }
+        return actual.posiciones();
+    }
+
+    public static void invalidar() {
+        invalidaciones.incrementAndGet();
+    }
+
+    private static Cargado vigente() {
+        Cargado actual = cargado;
+        return esVigente(actual) ? actual : cargar();
+    }
+
+    private static boolean esVigente(Cargado actual) {
+        return actual != null
+                && actual.invalidacion() == invalidaciones.get()
+                && actual.generacionShards() == HibernateUtil.getGeneracionShards()
+                && System.nanoTime() - actual.cargadoEn() < VIGENCIA_NANOS;
+    }
+
+    private static synchronized Cargado cargar() {
+        Cargado actual = cargado;
+        if (esVigente(actual)) {
+            return actual;
+        }
+
+        long generacion = HibernateUtil.getGeneracionShards();
+        long invalidacion = invalidaciones.get();
+        long inicio = System.nanoTime();
+        // Las categorías están replicadas en todos los shards; por EjecucionEnShards la carga respeta el plazo de la llamada
+        Cargado nuevo = EjecucionEnShards.enShard(0, session -> leer(session, generacion, invalidacion, inicio));
+        // Si una escritura invalidó durante la carga, el resultado queda con la invalidación anterior
+        // y el próximo lector vuelve a cargar
+        cargado = nuevo;
+        return nuevo;
+    }
+
+    private static Cargado leer(Session session, long generacion, long invalidacion, long inicio) {
+        List<Object[]> filas = session.createQuery("select c.nombre, c.id from Categoria c order by c.nombre, c.id", Object[].class)
+                                      .getResultList();
+        NavigableMap<String, List<Integer>> ids = new TreeMap<>(comparadorPara(collationDeNombre(session)));
+        Map<Integer, Integer> posiciones = new HashMap<>();
+        for (Object[] fila : filas) {
+            Integer id = (Integer) fila[1];
+            if (fila[0] != null) {
+                ids.computeIfAbsent((String) fila[0], k -> new ArrayList<>()).add(id);
+            }
+            posiciones.put(id, posiciones.size());
+        }
+        ids.replaceAll((nombre, lista) -> lista.stream().sorted().toList());
+        return new Cargado(Collections.unmodifiableNavigableMap(ids), Map.copyOf(posiciones), generacion, invalidacion, inicio);
+    }
+
+    // La collation de Categorias.nombre en MySQL; null en otras bases
+    private static String collationDeNombre(Session session) {
+        Dialect dialect = session.getSessionFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        if (!(dialect instanceof MySQLDialect)) {
+            return null;
+        }
+        List<String> collations = session.createNativeQuery(
+                        "SELECT collation_name FROM information_schema.columns"
+                      + " WHERE table_schema = DATABASE() AND LOWER(table_name) = 'categorias' AND column_name = 'nombre'", String.class)
+                                         .getResultList();
+        return collations.isEmpty() ? null : collations.get(0);
+    }
+
+    /**
+     * Compara nombres como la collation indicada: "_bin" o desconocida es exacta; "_ci" ignora mayúsculas y,
+     * salvo "_as", también acentos; "_cs" distingue ambos.
+     * Collator resuelve además las equivalencias de varias letras, como "ß" y "ss".
+     */
+    static Comparator<String> comparadorPara(String collation) {
+        if (collation == null || collation.endsWith("_bin")) {
+            return Comparator.naturalOrder();
+        }
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        if (collation.contains("_ci")) {
+            collator.setStrength(collation.contains("_as") ? Collator.SECONDARY : Collator.PRIMARY);
+        } else {
+            collator.setStrength(Collator.TERTIARY);
+        }
+        return collator::compare;
+    }
+}
@@ -0,0 +1,42 @@
+package org.app.utils;
+
+import java.util.Arrays;
+
+/**
+ * Decide en qué shard se guardan los productos de una categoría.
+ */
+@FunctionalInterface
+public interface EstrategiaShard {
+
+    /**
+     * @param categoriaId     El id de la categoría del producto.
+     * @param cantidadShards  La cantidad de shards configurados.
+     * @return El índice del shard, entre 0 y cantidadShards - 1.
+     */
+    int shardPara(int categoriaId, int cantidadShards);
+
+    /**
+     * Reparte las categorías por módulo de su id.
+     */
+    static EstrategiaShard porHash() {
+        return (categoriaId, cantidadShards) -> Math.floorMod(categoriaId, cantidadShards);
+    }
+
+    /**
+     * Reparte las categorías por rangos de id.
+     *
+     * @param inicios El primer id de cada shard a partir del segundo, en orden ascendente.
+     *                Los ids menores al primer inicio van al shard 0.
+     */
+    static EstrategiaShard porRango(int... inicios) {
+        int[] limites = inicios.clone();
+        Arrays.sort(limites);
+        return (categoriaId, cantidadShards) -> {
+            int shard = 0;
+            while (shard < limites.length && categoriaId >= limites[shard]) {
+                shard++;
+            }
+            return Math.min(shard, cantidadShards - 1);
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package org.app.utils;
+
+import org.app.models.Producto;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Genera ids de producto únicos entre shards: cada shard toma números de su propia secuencia
+ * (una tabla en MySQL) y los intercala con los de los demás, id = numero * cantidadShards + shard,
+ * como auto_increment_increment y auto_increment_offset en una replicación multi-master.
+ * Así el shard de un producto se deduce de su id (ver {@link HibernateUtil#getShardDeProducto(Integer)}).
+ */
+public class GeneradorIdProducto extends SequenceStyleGenerator {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        long numero = ((Number) super.generate(session, object)).longValue();
+        int shard = HibernateUtil.getShardDeFabrica(session.getFactory());
+        long id = numero * HibernateUtil.getCantidadShards() + shard;
+        if (id > Integer.MAX_VALUE) {
+            throw new IdentifierGenerationException("Se agotaron los ids de producto del shard " + shard);
+        }
+        return (int) id;
+    }
+
+    /**
+     * Adelanta la secuencia de cada shard por encima del mayor id de producto de todos los shards.
+     * Una base que venía usando IDENTITY tiene ids pero una secuencia recién creada que empieza en 1,
+     * y el primer INSERT repetiría una clave. Sólo adelanta, así que se puede llamar en cada arranque.
+     * Recibe las fábricas porque se llama mientras se inicializa HibernateUtil.
+     */
+    static void sembrar(List<SessionFactory> fabricas) {
+        long maximo = 0;
+        for (SessionFactory fabrica : fabricas) {
+            try (Session session = fabrica.openSession()) {
+                Integer id = session.createQuery("select max(p.id) from Producto p", Integer.class).getSingleResult();
+                if (id != null) {
+                    maximo = Math.max(maximo, id);
+                }
+            }
+        }
+        if (maximo == 0) {
+            return;
+        }
+
+        for (SessionFactory fabrica : fabricas) {
+            SessionFactoryImplementor implementor = fabrica.unwrap(SessionFactoryImplementor.class);
+            if (!(implementor.getMappingMetamodel().getEntityDescriptor(Producto.class).getGenerator()
+                    instanceof SequenceStyleGenerator generador)) {
+                continue;
+            }
+            DatabaseStructure estructura = generador.getDatabaseStructure();
+            String nombre = implementor.getSqlStringGenerationContext().format(estructura.getPhysicalName());
+            Dialect dialect = implementor.getJdbcServices().getDialect();
+            // El optimizador pooled usa el valor leído como tope de un bloque de increment_size números,
+            // así que el primer número entregado queda por encima de maximo y cualquier id también
+            long siguiente = maximo + estructura.getIncrementSize() + 1;
+
+            try (Session session = fabrica.openSession()) {
+                session.beginTransaction();
+                session.doWork(conexion -> {
+                    if (estructura.isPhysicalSequence()) {
+                        long actual;
+                        try (Statement consulta = conexion.createStatement();
+                             ResultSet resultado = consulta.executeQuery(dialect.getSequenceSupport().getSequenceNextValString(nombre))) {
+                            resultado.next();
+                            actual = resultado.getLong(1);
+                        }
+                        if (actual < siguiente) {
+                            try (Statement reinicio = conexion.createStatement()) {
+                                reinicio.execute("ALTER SEQUENCE " + nombre + " RESTART WITH " + siguiente);
+                            }
+                        }
+                    } else {
+                        // Con la condición, dos nodos que arrancan a la vez nunca hacen retroceder la tabla
+                        try (PreparedStatement update = conexion.prepareStatement(
+                                "UPDATE " + nombre + " SET " + DEF_VALUE_COLUMN + " = ? WHERE " + DEF_VALUE_COLUMN + " < ?")) {
+                            update.setLong(1, siguiente);
+                            update.setLong(2, siguiente);
+                            update.executeUpdate();
+                        }
+                    }
+                });
+                session.getTransaction().commit();
+            }
+        }
+    }
+}
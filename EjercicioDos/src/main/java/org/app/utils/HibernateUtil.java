@@ -6,15 +6,37 @@ import org.hibernate.cfg.Configuration;
 
 public class HibernateUtil {
     private static final SessionFactory sessionFactory;
+    private static final RegistroShards shards;
 
     static {
         try {
             Configuration configuration = new Configuration().configure();
             sessionFactory = configuration.buildSessionFactory();
+            shards = new RegistroShards("hibernate.cfg.xml", sessionFactory);
         } catch (Exception e){
             throw new RuntimeException("Failed to initialize DB", e);
         }
     }
 
     public static Session getSession(){ return sessionFactory.openSession(); }
+
+    // Sharding del catálogo: las URLs reemplazan la conexión de hibernate.cfg.xml, una por shard
+    public static void configurarShards(EstrategiaShard estrategia, String... urls){ shards.configurar(estrategia, urls); }
+
+    public static void restablecerShards(){ shards.restablecer(); }
+
+    public static int getCantidadShards(){ return shards.cantidad(); }
+
+    public static long getGeneracionShards(){ return shards.generacion(); }
+
+    public static Session getSession(int shard){ return shards.abrir(shard); }
+
+    // Para recorridos completos con cursor: conexión propia con useCursorFetch=true en MySQL, cerrada con la sesión
+    public static Session getSessionDeRecorrido(int shard){ return shards.abrirParaRecorrido(shard); }
+
+    public static int getShardDeCategoria(Integer categoriaId){ return shards.shardDeCategoria(categoriaId); }
+
+    public static int getShardDeProducto(Integer productoId){ return shards.shardDeProducto(productoId); }
+
+    public static int getShardDeFabrica(SessionFactory fabrica){ return shards.shardDeFabrica(fabrica); }
 }
\ No newline at end of file
@@ -5,8 +5,44 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 
 public class LocalDateTimeUtils {
+    // STRICT, como los métodos de parseo masivo: '2023-02-30' es inválida en lugar de ajustarse al 28
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("uuuu-MM-dd")
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm:ss")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    /**
+     * Valor devuelto por los métodos de parseo masivo cuando una fecha no es válida.
+     */
+    public static final long FECHA_INVALIDA = Long.MIN_VALUE;
+
+    /**
+     * Valor devuelto por {@link #parsearSegundosDelDia(char[], int)} cuando una hora no es válida.
+     */
+    public static final int HORA_INVALIDA = -1;
+
+    private static final int LARGO_FECHA = 10;
+    private static final int LARGO_HORA = 8;
+    private static final int SEGUNDOS_POR_DIA = 86400;
+    private static final long DIAS_0000_A_1970 = 719528L;
+
+    /**
+     * Genera un LocalDate a partir de una cadena de fecha en formato 'yyyy-MM-dd'.
+     *
+     * @param fechaString La cadena de fecha en formato 'yyyy-MM-dd'.
+     * @return Un LocalDate con la fecha ingresada, o null si la cadena no puede ser parseada.
+     */
+    public static LocalDate crearLocalDateDesdeFecha(String fechaString) {
+        if (fechaString == null || fechaString.length() != LARGO_FECHA) {
+            return null;
+        }
+        long dia = parsearEpochDia(fechaString.toCharArray(), 0);
+        return dia == FECHA_INVALIDA ? null : LocalDate.ofEpochDay(dia);
+    }
+
     /**
      * Genera un LocalDateTime a partir de una cadena de fecha en formato 'yyyy-MM-dd'
      * y la combina con la medianoche (00:00:00).
@@ -29,9 +65,8 @@ public class LocalDateTimeUtils {
      * o null si la cadena de fecha no puede ser parseada.
      */
     public static LocalDateTime crearLocalDateTimeDesdeFecha(String fechaString, LocalTime hora) {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         try {
-            LocalDate fechaLocalDate = LocalDate.parse(fechaString, dateFormatter);
+            LocalDate fechaLocalDate = LocalDate.parse(fechaString, FORMATO_FECHA);
             return fechaLocalDate.atTime(hora);
         } catch (DateTimeParseException e) {
             System.err.println("Error al parsear la fecha: " + e.getMessage());
@@ -48,15 +83,212 @@ public class LocalDateTimeUtils {
      * o null si alguna de las cadenas no puede ser parseada.
      */
     public static LocalDateTime crearLocalDateTimeDesdeFechaYHora(String fechaString, String horaString) {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
         try {
-            LocalDate fechaLocalDate = LocalDate.parse(fechaString, dateFormatter);
-            LocalTime horaLocalTime = LocalTime.parse(horaString, timeFormatter);
+            LocalDate fechaLocalDate = LocalDate.parse(fechaString, FORMATO_FECHA);
+            LocalTime horaLocalTime = LocalTime.parse(horaString, FORMATO_HORA);
             return fechaLocalDate.atTime(horaLocalTime);
         } catch (DateTimeParseException e) {
             System.err.println("Error al parsear la fecha u hora: " + e.getMessage());
             return null;
         }
     }
+
+    /**
+     * Parsea una fecha 'yyyy-MM-dd' que comienza en la posición indicada del buffer.
+     * No crea objetos ni lanza excepciones.
+     *
+     * @param buf    El buffer de caracteres.
+     * @param offset La posición del primer dígito del año.
+     * @return Los días transcurridos desde 1970-01-01, o {@link #FECHA_INVALIDA}
+     * si el texto no es una fecha válida.
+     */
+    public static long parsearEpochDia(char[] buf, int offset) {
+        if (offset < 0 || offset > buf.length - LARGO_FECHA
+                || buf[offset + 4] != '-' || buf[offset + 7] != '-') {
+            return FECHA_INVALIDA;
+        }
+        int a0 = buf[offset] - '0', a1 = buf[offset + 1] - '0', a2 = buf[offset + 2] - '0', a3 = buf[offset + 3] - '0';
+        int m0 = buf[offset + 5] - '0', m1 = buf[offset + 6] - '0';
+        int d0 = buf[offset + 8] - '0', d1 = buf[offset + 9] - '0';
+        return epochDia(a0, a1, a2, a3, m0, m1, d0, d1);
+    }
+
+    /**
+     * Igual que {@link #parsearEpochDia(char[], int)} pero sobre bytes ASCII.
+     */
+    public static long parsearEpochDia(byte[] buf, int offset) {
+        if (offset < 0 || offset > buf.length - LARGO_FECHA
+                || buf[offset + 4] != '-' || buf[offset + 7] != '-') {
+            return FECHA_INVALIDA;
+        }
+        int a0 = buf[offset] - '0', a1 = buf[offset + 1] - '0', a2 = buf[offset + 2] - '0', a3 = buf[offset + 3] - '0';
+        int m0 = buf[offset + 5] - '0', m1 = buf[offset + 6] - '0';
+        int d0 = buf[offset + 8] - '0', d1 = buf[offset + 9] - '0';
+        return epochDia(a0, a1, a2, a3, m0, m1, d0, d1);
+    }
+
+    /**
+     * Parsea una hora 'HH:mm:ss' que comienza en la posición indicada del buffer.
+     *
+     * @param buf    El buffer de caracteres.
+     * @param offset La posición del primer dígito de la hora.
+     * @return Los segundos desde la medianoche, o {@link #HORA_INVALIDA}
+     * si el texto no es una hora válida.
+     */
+    public static int parsearSegundosDelDia(char[] buf, int offset) {
+        if (offset < 0 || offset > buf.length - LARGO_HORA
+                || buf[offset + 2] != ':' || buf[offset + 5] != ':') {
+            return HORA_INVALIDA;
+        }
+        return segundosDelDia(buf[offset] - '0', buf[offset + 1] - '0',
+                buf[offset + 3] - '0', buf[offset + 4] - '0',
+                buf[offset + 6] - '0', buf[offset + 7] - '0');
+    }
+
+    /**
+     * Igual que {@link #parsearSegundosDelDia(char[], int)} pero sobre bytes ASCII.
+     */
+    public static int parsearSegundosDelDia(byte[] buf, int offset) {
+        if (offset < 0 || offset > buf.length - LARGO_HORA
+                || buf[offset + 2] != ':' || buf[offset + 5] != ':') {
+            return HORA_INVALIDA;
+        }
+        return segundosDelDia(buf[offset] - '0', buf[offset + 1] - '0',
+                buf[offset + 3] - '0', buf[offset + 4] - '0',
+                buf[offset + 6] - '0', buf[offset + 7] - '0');
+    }
+
+    /**
+     * Parsea en bloque fechas 'yyyy-MM-dd' ubicadas en las posiciones indicadas del buffer.
+     * Las fechas inválidas se guardan como {@link #FECHA_INVALIDA} en el destino.
+     *
+     * @param buf      El buffer con los datos de entrada.
+     * @param offsets  La posición de inicio de cada fecha.
+     * @param cantidad La cantidad de fechas a parsear.
+     * @param destino  El arreglo donde se guardan los días desde 1970-01-01.
+     * @return La cantidad de fechas inválidas.
+     */
+    public static int parsearEpochDias(char[] buf, int[] offsets, int cantidad, long[] destino) {
+        int errores = 0;
+        for (int i = 0; i < cantidad; i++) {
+            long dia = parsearEpochDia(buf, offsets[i]);
+            destino[i] = dia;
+            if (dia == FECHA_INVALIDA) {
+                errores++;
+            }
+        }
+        return errores;
+    }
+
+    /**
+     * Igual que {@link #parsearEpochDias(char[], int[], int, long[])} pero sobre bytes ASCII.
+     */
+    public static int parsearEpochDias(byte[] buf, int[] offsets, int cantidad, long[] destino) {
+        int errores = 0;
+        for (int i = 0; i < cantidad; i++) {
+            long dia = parsearEpochDia(buf, offsets[i]);
+            destino[i] = dia;
+            if (dia == FECHA_INVALIDA) {
+                errores++;
+            }
+        }
+        return errores;
+    }
+
+    /**
+     * Parsea en bloque pares de fecha 'yyyy-MM-dd' y hora 'HH:mm:ss' y los convierte
+     * a segundos desde 1970-01-01T00:00:00, sin zona horaria.
+     * Los pares inválidos se guardan como {@link #FECHA_INVALIDA} en el destino.
+     *
+     * @param buf          El buffer con los datos de entrada.
+     * @param offsetsFecha La posición de inicio de cada fecha.
+     * @param offsetsHora  La posición de inicio de cada hora.
+     * @param cantidad     La cantidad de pares a parsear.
+     * @param destino      El arreglo donde se guardan los segundos.
+     * @return La cantidad de pares inválidos.
+     */
+    public static int parsearEpochSegundos(char[] buf, int[] offsetsFecha, int[] offsetsHora, int cantidad, long[] destino) {
+        int errores = 0;
+        for (int i = 0; i < cantidad; i++) {
+            long dia = parsearEpochDia(buf, offsetsFecha[i]);
+            int segundos = parsearSegundosDelDia(buf, offsetsHora[i]);
+            if (dia == FECHA_INVALIDA || segundos == HORA_INVALIDA) {
+                destino[i] = FECHA_INVALIDA;
+                errores++;
+            } else {
+                destino[i] = dia * SEGUNDOS_POR_DIA + segundos;
+            }
+        }
+        return errores;
+    }
+
+    /**
+     * Igual que {@link #parsearEpochSegundos(char[], int[], int[], int, long[])} pero sobre bytes ASCII.
+     */
+    public static int parsearEpochSegundos(byte[] buf, int[] offsetsFecha, int[] offsetsHora, int cantidad, long[] destino) {
+        int errores = 0;
+        for (int i = 0; i < cantidad; i++) {
+            long dia = parsearEpochDia(buf, offsetsFecha[i]);
+            int segundos = parsearSegundosDelDia(buf, offsetsHora[i]);
+            if (dia == FECHA_INVALIDA || segundos == HORA_INVALIDA) {
+                destino[i] = FECHA_INVALIDA;
+                errores++;
+            } else {
+                destino[i] = dia * SEGUNDOS_POR_DIA + segundos;
+            }
+        }
+        return errores;
+    }
+
+    // Un dígito es válido si d >= 0 y 9 - d >= 0; el OR acumula el bit de signo de cualquier fallo.
+    private static long epochDia(int a0, int a1, int a2, int a3, int m0, int m1, int d0, int d1) {
+        if ((a0 | a1 | a2 | a3 | m0 | m1 | d0 | d1
+                | (9 - a0) | (9 - a1) | (9 - a2) | (9 - a3)
+                | (9 - m0) | (9 - m1) | (9 - d0) | (9 - d1)) < 0) {
+            return FECHA_INVALIDA;
+        }
+        int anio = a0 * 1000 + a1 * 100 + a2 * 10 + a3;
+        int mes = m0 * 10 + m1;
+        int dia = d0 * 10 + d1;
+        if (mes < 1 || mes > 12 || dia < 1 || dia > largoMes(anio, mes)) {
+            return FECHA_INVALIDA;
+        }
+        // Mismo cálculo que LocalDate.toEpochDay() para años no negativos
+        long total = 365L * anio + (anio + 3) / 4 - (anio + 99) / 100 + (anio + 399) / 400;
+        total += (367 * mes - 362) / 12;
+        total += dia - 1;
+        if (mes > 2) {
+            total--;
+            if (!esBisiesto(anio)) {
+                total--;
+            }
+        }
+        return total - DIAS_0000_A_1970;
+    }
+
+    private static int segundosDelDia(int h0, int h1, int m0, int m1, int s0, int s1) {
+        if ((h0 | h1 | m0 | m1 | s0 | s1
+                | (9 - h0) | (9 - h1) | (9 - m0) | (9 - m1) | (9 - s0) | (9 - s1)) < 0) {
+            return HORA_INVALIDA;
+        }
+        int hora = h0 * 10 + h1;
+        int minuto = m0 * 10 + m1;
+        int segundo = s0 * 10 + s1;
+        if (hora > 23 || minuto > 59 || segundo > 59) {
+            return HORA_INVALIDA;
+        }
+        return hora * 3600 + minuto * 60 + segundo;
+    }
+
+    private static int largoMes(int anio, int mes) {
+        return switch (mes) {
+            case 2 -> esBisiesto(anio) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean esBisiesto(int anio) {
+        return (anio & 3) == 0 && (anio % 100 != 0 || anio % 400 == 0);
+    }
 }
@@ -0,0 +1,156 @@
+package org.app.utils;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.exception.JDBCConnectionException;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Mantiene una SessionFactory por shard del catálogo. Sin configuración explícita
+ * hay un único shard, que es la base principal.
+ * Las categorías se replican en todos los shards; los productos viven en el shard de su categoría
+ * (las escrituras que mantienen ese reparto están en EscriturasCatalogo).
+ */
+class RegistroShards {
+    private record Estado(List<SessionFactory> fabricas, List<String> urls, EstrategiaShard estrategia, long generacion) {}
+
+    private final String recursoConfiguracion;
+    private final SessionFactory principal;
+    private final String urlPrincipal;
+    private final String usuario;
+    private final String clave;
+    private volatile Estado estado;
+
+    RegistroShards(String recursoConfiguracion, SessionFactory principal) {
+        this.recursoConfiguracion = recursoConfiguracion;
+        this.principal = principal;
+        // SessionFactory.getProperties() oculta la clave, así que los datos de conexión se leen de la configuración
+        Properties propiedades = new Configuration().configure(recursoConfiguracion).getProperties();
+        this.urlPrincipal = propiedades.getProperty(AvailableSettings.URL);
+        this.usuario = propiedades.getProperty(AvailableSettings.USER);
+        this.clave = propiedades.getProperty(AvailableSettings.PASS);
+        this.estado = new Estado(List.of(principal), List.of(urlPrincipal), EstrategiaShard.porHash(), 0);
+        GeneradorIdProducto.sembrar(List.of(principal));
+    }
+
+    synchronized void configurar(EstrategiaShard estrategia, String... urls) {
+        if (urls.length == 0) {
+            throw new IllegalArgumentException("Se requiere al menos un shard");
+        }
+        List<SessionFactory> nuevas = new ArrayList<>();
+        try {
+            for (String url : urls) {
+                Configuration configuration = new Configuration().configure(recursoConfiguracion);
+                configuration.setProperty("hibernate.connection.url", url);
+                nuevas.add(configuration.buildSessionFactory());
+            }
+            GeneradorIdProducto.sembrar(nuevas);
+        } catch (RuntimeException e) {
+            nuevas.forEach(SessionFactory::close);
+            throw e;
+        }
+        Estado anterior = estado;
+        estado = new Estado(List.copyOf(nuevas), List.of(urls), estrategia, anterior.generacion() + 1);
+        cerrarShards(anterior);
+    }
+
+    synchronized void restablecer() {
+        Estado anterior = estado;
+        estado = new Estado(List.of(principal), List.of(urlPrincipal), EstrategiaShard.porHash(), anterior.generacion() + 1);
+        cerrarShards(anterior);
+    }
+
+    // Cambia cada vez que se reconfiguran los shards; sirve para descartar lo cacheado de la configuración anterior
+    long generacion() {
+        return estado.generacion();
+    }
+
+    int cantidad() {
+        return estado.fabricas().size();
+    }
+
+    Session abrir(int shard) {
+        return estado.fabricas().get(shard).openSession();
+    }
+
+    // Con una conexión propia, fuera del pool, que en MySQL lleva useCursorFetch=true para que el driver respete
+    // el fetch size con un cursor del servidor. Sólo estas conexiones pagan los PREPARE del servidor que eso implica;
+    // la conexión se cierra con la sesión
+    Session abrirParaRecorrido(int shard) {
+        Estado actual = estado;
+        String url = actual.urls().get(shard);
+        if (url.startsWith("jdbc:mysql:")) {
+            url += (url.contains("?") ? "&" : "?") + "useCursorFetch=true";
+        }
+        Connection conexion;
+        try {
+            conexion = DriverManager.getConnection(url, usuario, clave);
+        } catch (SQLException e) {
+            throw new JDBCConnectionException("No se pudo abrir la conexión de recorrido del shard " + shard, e);
+        }
+        try {
+            return actual.fabricas().get(shard).withOptions()
+                         .connection(conexion)
+                         .eventListeners(new BaseSessionEventListener() {
+                             @Override
+                             public void end() {
+                                 try {
+                                     conexion.close();
+                                 } catch (SQLException e) {
+                                     // La sesión ya terminó; no hay nada más que liberar
+                                 }
+                             }
+                         })
+                         .openSession();
+        } catch (RuntimeException e) {
+            try {
+                conexion.close();
+            } catch (SQLException cierre) {
+                e.addSuppressed(cierre);
+            }
+            throw e;
+        }
+    }
+
+    // Los ids de producto llevan el shard en su resto (ver GeneradorIdProducto)
+    int shardDeProducto(Integer productoId) {
+        return Math.floorMod(productoId, estado.fabricas().size());
+    }
+
+    int shardDeFabrica(SessionFactory fabrica) {
+        int shard = estado.fabricas().indexOf(fabrica);
+        if (shard < 0) {
+            throw new IllegalStateException("La sesión no pertenece a ningún shard configurado");
+        }
+        return shard;
+    }
+
+    int shardDeCategoria(Integer categoriaId) {
+        Estado actual = estado;
+        if (categoriaId == null || actual.fabricas().size() == 1) {
+            return 0;
+        }
+        return actual.estrategia().shardPara(categoriaId, actual.fabricas().size());
+    }
+
+    synchronized void cerrar() {
+        cerrarShards(estado);
+    }
+
+    private void cerrarShards(Estado estado) {
+        for (SessionFactory fabrica : estado.fabricas()) {
+            if (fabrica != principal) {
+                fabrica.close();
+            }
+        }
+    }
+}
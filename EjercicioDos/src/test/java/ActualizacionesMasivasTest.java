@@ -0,0 +1,140 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import org.app.services.ActualizacionesMasivas;
+import org.app.models.Producto;
+import org.app.models.Categoria;
+import org.app.utils.EstrategiaShard;
+import org.app.utils.HibernateUtil;
+import org.hibernate.Session;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ActualizacionesMasivasTest {
+
+    private ActualizacionesMasivas actualizaciones;
+    private Categoria electronicos;
+    private Producto laptop;
+    private Producto smartphone;
+    private Producto camiseta;
+
+    @BeforeEach
+    void setUp() {
+        actualizaciones = ActualizacionesMasivas.getInstance();
+        // Base propia para no interferir con los datos de LogicaTest
+        HibernateUtil.configurarShards(EstrategiaShard.porHash(), "jdbc:h2:mem:masivas");
+
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            electronicos = new Categoria("Electrónicos");
+            Categoria ropa = new Categoria("Ropa");
+            session.persist(electronicos);
+            session.persist(ropa);
+
+            LocalDate haceUnMes = LocalDate.now().minusDays(30);
+            laptop = new Producto("Laptop", electronicos, new BigDecimal("1000.00"), 10, haceUnMes);
+            smartphone = new Producto("Smartphone", electronicos, new BigDecimal("499.99"), 15, LocalDate.now());
+            camiseta = new Producto("Camiseta", ropa, new BigDecimal("29.99"), 50, haceUnMes);
+            session.persist(laptop);
+            session.persist(smartphone);
+            session.persist(camiseta);
+            session.getTransaction().commit();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        HibernateUtil.restablecerShards();
+    }
+
+    private Producto recargar(Producto producto) {
+        try (Session session = HibernateUtil.getSession(0)) {
+            return session.get(Producto.class, producto.getId());
+        }
+    }
+
+    @Test
+    void testAumentarPreciosPorCategoria() {
+        LocalDateTime antes = recargar(laptop).getFechaModificacion();
+
+        int actualizados = actualizaciones.aumentarPreciosPorCategoria(electronicos.getId(), new BigDecimal("10"));
+
+        assertEquals(2, actualizados);
+        assertEquals(new BigDecimal("1100.00"), recargar(laptop).getPrecio());
+        assertEquals(new BigDecimal("549.99"), recargar(smartphone).getPrecio());
+        assertEquals(new BigDecimal("29.99"), recargar(camiseta).getPrecio());
+        assertTrue(recargar(laptop).getFechaModificacion().isAfter(antes));
+    }
+
+    @Test
+    void testPonerStockEnCeroIngresadosAntesDe() {
+        LocalDate ayer = LocalDate.now().minusDays(1);
+
+        assertEquals(2, actualizaciones.ponerStockEnCeroIngresadosAntesDe(ayer));
+        assertEquals(0, recargar(laptop).getStock());
+        assertEquals(0, recargar(camiseta).getStock());
+        assertEquals(15, recargar(smartphone).getStock());
+    }
+
+    @Test
+    void testAplicarListaDePrecios() {
+        Map<Integer, BigDecimal> precios = new HashMap<>();
+        precios.put(laptop.getId(), new BigDecimal("950.00"));
+        precios.put(camiseta.getId(), new BigDecimal("24.50"));
+        precios.put(-1, new BigDecimal("1.00"));
+
+        assertEquals(2, actualizaciones.aplicarListaDePrecios(precios));
+        assertEquals(new BigDecimal("950.00"), recargar(laptop).getPrecio());
+        assertEquals(new BigDecimal("24.50"), recargar(camiseta).getPrecio());
+        assertEquals(new BigDecimal("499.99"), recargar(smartphone).getPrecio());
+    }
+
+    @Test
+    void testPorcentajeQueAnulaElPrecioSeRechaza() {
+        assertThrows(IllegalArgumentException.class,
+                () -> actualizaciones.aumentarPreciosPorCategoria(electronicos.getId(), new BigDecimal("-100")));
+        assertEquals(new BigDecimal("1000.00"), recargar(laptop).getPrecio());
+    }
+
+    @Test
+    void testListaDePreciosSoloTocaElShardDelProducto() {
+        HibernateUtil.configurarShards(EstrategiaShard.porHash(), "jdbc:h2:mem:masivas0", "jdbc:h2:mem:masivas1");
+        // Una categoría por shard, con un producto cada una
+        List<Producto> productos = new ArrayList<>();
+        for (int shard = 0; shard < 2; shard++) {
+            try (Session session = HibernateUtil.getSession(shard)) {
+                session.beginTransaction();
+                List<Categoria> categorias = List.of(new Categoria("Electrónicos"), new Categoria("Ropa"));
+                categorias.forEach(session::persist);
+                Categoria propia = categorias.get(HibernateUtil.getShardDeCategoria(categorias.get(0).getId()) == shard ? 0 : 1);
+                Producto producto = new Producto("Producto " + shard, propia, new BigDecimal("10.00"), 1, LocalDate.now());
+                session.persist(producto);
+                productos.add(producto);
+                session.getTransaction().commit();
+            }
+        }
+
+        // Fila heredada en el shard 0 con el mismo id que el producto del shard 1: no debe tocarse
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("INSERT INTO Productos (id, nombre, precio, stock) VALUES (:id, 'Legado', 10.00, 1)")
+                   .setParameter("id", productos.get(1).getId())
+                   .executeUpdate();
+            session.getTransaction().commit();
+        }
+
+        assertEquals(1, actualizaciones.aplicarListaDePrecios(Map.of(productos.get(1).getId(), new BigDecimal("20.00"))));
+        for (int shard = 0; shard < 2; shard++) {
+            try (Session session = HibernateUtil.getSession(shard)) {
+                Producto leido = session.get(Producto.class, productos.get(shard).getId());
+                assertEquals(new BigDecimal(shard == 1 ? "20.00" : "10.00"), leido.getPrecio());
+            }
+        }
+        try (Session session = HibernateUtil.getSession(0)) {
+            assertEquals(new BigDecimal("10.00"), session.get(Producto.class, productos.get(1).getId()).getPrecio());
+        }
+    }
+}
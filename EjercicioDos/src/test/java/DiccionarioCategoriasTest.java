@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.app.services.Logica;
+import org.app.models.Categoria;
+import org.app.models.Producto;
+import org.app.utils.DiccionarioCategorias;
+import org.app.utils.EstrategiaShard;
+import org.app.utils.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DiccionarioCategoriasTest {
+
+    private Categoria hogar;
+
+    @BeforeAll
+    void setUp() {
+        // Base propia para no interferir con los datos de LogicaTest
+        HibernateUtil.configurarShards(EstrategiaShard.porHash(), "jdbc:h2:mem:diccionario;DB_CLOSE_DELAY=-1");
+
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            hogar = new Categoria("Hogar");
+            session.persist(hogar);
+            session.getTransaction().commit();
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        HibernateUtil.restablecerShards();
+    }
+
+    @Test
+    void testResuelveNombresYSeInvalidaAlEscribir() {
+        assertEquals(List.of(hogar.getId()), DiccionarioCategorias.obtenerIds("Hogar"));
+        assertTrue(DiccionarioCategorias.obtenerIds("Jardín").isEmpty());
+        assertTrue(Logica.getInstance().obtenerProductosStockBajoPorCategoria("Jardín", 10).isEmpty());
+
+        Categoria jardin = new Categoria("Jardín");
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            session.persist(jardin);
+            session.getTransaction().commit();
+        }
+        assertEquals(List.of(jardin.getId()), DiccionarioCategorias.obtenerIds("Jardín"));
+
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            Categoria renombrada = session.get(Categoria.class, hogar.getId());
+            renombrada.setNombre("Casa");
+            session.getTransaction().commit();
+        }
+        assertTrue(DiccionarioCategorias.obtenerIds("Hogar").isEmpty());
+        assertEquals(List.of(hogar.getId()), DiccionarioCategorias.obtenerIds("Casa"));
+    }
+
+    @Test
+    void testNombreRepetidoResuelveTodasLasCategorias() {
+        Categoria primera = new Categoria("Ofertas");
+        Categoria segunda = new Categoria("Ofertas");
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            session.persist(primera);
+            session.persist(segunda);
+            session.persist(new Producto("Taza", primera, new BigDecimal("5.00"), 1, LocalDate.now()));
+            session.persist(new Producto("Plato", segunda, new BigDecimal("7.00"), 2, LocalDate.now()));
+            session.getTransaction().commit();
+        }
+        assertEquals(List.of(primera.getId(), segunda.getId()), DiccionarioCategorias.obtenerIds("Ofertas"));
+        assertEquals(2, Logica.getInstance().obtenerProductosStockBajoPorCategoria("Ofertas", 10).size());
+    }
+
+    @Test
+    void testComparaComoLaCollationDeLaBase() {
+        // La columna de H2 distingue mayúsculas y acentos, igual que el join por nombre que reemplaza el diccionario
+        Categoria electronicos = new Categoria("Electrónicos");
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            session.persist(electronicos);
+            session.getTransaction().commit();
+        }
+        assertEquals(List.of(electronicos.getId()), DiccionarioCategorias.obtenerIds("Electrónicos"));
+        assertTrue(DiccionarioCategorias.obtenerIds("electronicos").isEmpty());
+    }
+
+    @Test
+    void testNombreAusenteNoConsultaLaBase() {
+        DiccionarioCategorias.obtenerIds("Hogar");
+        try (Session session = HibernateUtil.getSession(0)) {
+            Statistics estadisticas = session.getSessionFactory().getStatistics();
+            estadisticas.setStatisticsEnabled(true);
+            try {
+                estadisticas.clear();
+                assertTrue(DiccionarioCategorias.obtenerIds("Mascotas").isEmpty());
+                assertTrue(Logica.getInstance().obtenerProductosStockBajoPorCategoria("Mascotas", 10).isEmpty());
+                assertEquals(0, estadisticas.getPrepareStatementCount());
+            } finally {
+                estadisticas.setStatisticsEnabled(false);
+            }
+        }
+
+        // Un INSERT nativo no dispara la invalidación, como una categoría creada desde otro nodo:
+        // se ve al vencer la vigencia de lo cargado o, como acá, al invalidar
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("INSERT INTO Categorias (nombre) VALUES ('Mascotas')").executeUpdate();
+            session.getTransaction().commit();
+        }
+        assertTrue(DiccionarioCategorias.obtenerIds("Mascotas").isEmpty());
+        DiccionarioCategorias.invalidar();
+        assertEquals(1, DiccionarioCategorias.obtenerIds("Mascotas").size());
+    }
+}
@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import org.app.services.EscriturasCatalogo;
+import org.app.services.Logica;
+import org.app.models.Categoria;
+import org.app.dto.CategoriaDTO;
+import org.app.dto.ProductoDTO;
+import org.app.utils.EstrategiaShard;
+import org.app.utils.HibernateUtil;
+import org.hibernate.Session;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class EscriturasCatalogoTest {
+
+    private final EscriturasCatalogo escrituras = EscriturasCatalogo.getInstance();
+    private final Logica logica = Logica.getInstance();
+
+    @BeforeEach
+    void setUp() {
+        HibernateUtil.configurarShards(EstrategiaShard.porHash(),
+                "jdbc:h2:mem:escrituras0",
+                "jdbc:h2:mem:escrituras1");
+
+        // Los shards no recibieron las mismas categorías en el mismo orden: el shard 1 ya usó dos ids
+        // y el shard 0 ninguno, así que sus contadores de IDENTITY no coinciden
+        try (Session session = HibernateUtil.getSession(1)) {
+            session.beginTransaction();
+            Categoria vieja = new Categoria("Vieja");
+            Categoria otra = new Categoria("Otra");
+            session.persist(vieja);
+            session.persist(otra);
+            session.flush();
+            session.remove(vieja);
+            session.remove(otra);
+            session.getTransaction().commit();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        HibernateUtil.restablecerShards();
+    }
+
+    private Map<Integer, String> categoriasDelShard(int shard) {
+        try (Session session = HibernateUtil.getSession(shard)) {
+            Map<Integer, String> categorias = new TreeMap<>();
+            for (Categoria categoria : session.createQuery("from Categoria", Categoria.class).getResultList()) {
+                categorias.put(categoria.getId(), categoria.getNombre());
+            }
+            return categorias;
+        }
+    }
+
+    @Test
+    void testCategoriasConElMismoIdEnTodosLosShards() {
+        CategoriaDTO hogar = escrituras.crearCategoria("Hogar");
+        CategoriaDTO jardin = escrituras.crearCategoria("Jardín");
+
+        Map<Integer, String> esperadas = Map.of(hogar.getId(), "Hogar", jardin.getId(), "Jardín");
+        assertEquals(esperadas, categoriasDelShard(0));
+        assertEquals(esperadas, categoriasDelShard(1));
+
+        assertTrue(escrituras.renombrarCategoria(hogar.getId(), "Casa"));
+        assertEquals("Casa", categoriasDelShard(0).get(hogar.getId()));
+        assertEquals("Casa", categoriasDelShard(1).get(hogar.getId()));
+
+        assertTrue(escrituras.eliminarCategoria(jardin.getId()));
+        assertEquals(Map.of(hogar.getId(), "Casa"), categoriasDelShard(0));
+        assertEquals(Map.of(hogar.getId(), "Casa"), categoriasDelShard(1));
+        assertFalse(escrituras.eliminarCategoria(jardin.getId()));
+    }
+
+    @Test
+    void testProductoVaAlShardDeSuCategoria() {
+        CategoriaDTO hogar = escrituras.crearCategoria("Hogar");
+        CategoriaDTO jardin = escrituras.crearCategoria("Jardín");
+        int shardHogar = HibernateUtil.getShardDeCategoria(hogar.getId());
+        int shardJardin = HibernateUtil.getShardDeCategoria(jardin.getId());
+        assertNotEquals(shardHogar, shardJardin);
+
+        ProductoDTO lampara = escrituras.crearProducto("Lámpara", hogar.getId(), new BigDecimal("45.00"), 8, LocalDate.now());
+        assertEquals(shardHogar, HibernateUtil.getShardDeProducto(lampara.getId()));
+        assertEquals("Hogar", lampara.getCategoria().getNombre());
+        assertEquals(1, logica.obtenerProductosStockBajoPorCategoria("Hogar", 10).size());
+
+        assertThrows(IllegalArgumentException.class, () ->
+                escrituras.crearProducto("Maceta", 999, new BigDecimal("10.00"), 1, LocalDate.now()));
+    }
+
+    @Test
+    void testCambiarCategoriaMueveElProductoDeShard() {
+        CategoriaDTO hogar = escrituras.crearCategoria("Hogar");
+        CategoriaDTO jardin = escrituras.crearCategoria("Jardín");
+        ProductoDTO maceta = escrituras.crearProducto("Maceta", hogar.getId(), new BigDecimal("10.00"), 4, LocalDate.now());
+
+        ProductoDTO movida = escrituras.cambiarCategoria(maceta.getId(), jardin.getId());
+
+        assertNotEquals(maceta.getId(), movida.getId());
+        assertEquals(HibernateUtil.getShardDeCategoria(jardin.getId()), HibernateUtil.getShardDeProducto(movida.getId()));
+        assertTrue(logica.obtenerProductosStockBajoPorCategoria("Hogar", 10).isEmpty());
+        List<ProductoDTO> enJardin = logica.obtenerProductosStockBajoPorCategoria("Jardín", 10);
+        assertEquals(List.of(movida.getId()), enJardin.stream().map(ProductoDTO::getId).toList());
+        assertEquals(new BigDecimal("10.00"), enJardin.get(0).getPrecio());
+        assertNull(escrituras.cambiarCategoria(maceta.getId(), jardin.getId()));
+    }
+}
@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import org.app.services.IndiceFechasIngreso;
+import org.app.models.Producto;
+import org.app.models.Categoria;
+import org.app.dto.ProductoDTO;
+import org.app.utils.EstrategiaShard;
+import org.app.utils.HibernateUtil;
+import org.app.utils.LocalDateTimeUtils;
+import org.hibernate.Session;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class IndiceFechasIngresoTest {
+
+    private final LocalDate hoy = LocalDate.now();
+
+    @BeforeAll
+    void setUp() {
+        // Base propia para no interferir con los datos de LogicaTest
+        HibernateUtil.configurarShards(EstrategiaShard.porHash(), "jdbc:h2:mem:fechas;DB_CLOSE_DELAY=-1");
+
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            Categoria categoria = new Categoria("Electrónicos");
+            session.persist(categoria);
+            session.persist(new Producto("Hoy", categoria, new BigDecimal("10.00"), 1, hoy));
+            session.persist(new Producto("Hace 6 días", categoria, new BigDecimal("10.00"), 1, hoy.minusDays(6)));
+            session.persist(new Producto("Hace 7 días", categoria, new BigDecimal("10.00"), 1, hoy.minusDays(7)));
+            session.persist(new Producto("Hace 29 días", categoria, new BigDecimal("10.00"), 1, hoy.minusDays(29)));
+            session.persist(new Producto("Hace 60 días", categoria, new BigDecimal("10.00"), 1, hoy.minusDays(60)));
+            session.persist(new Producto("Hace un año", categoria, new BigDecimal("10.00"), 1, hoy.minusYears(1)));
+            session.persist(new Producto("Sin fecha", categoria, new BigDecimal("10.00"), 1, null));
+            session.getTransaction().commit();
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        HibernateUtil.restablecerShards();
+    }
+
+    @Test
+    void testContarVentanasRecientes() {
+        IndiceFechasIngreso indice = IndiceFechasIngreso.construir();
+        assertEquals(6, indice.getCantidad());
+        assertEquals(1, indice.contarUltimosDias(1));
+        assertEquals(2, indice.contarUltimosDias(7));
+        assertEquals(4, indice.contarUltimosDias(30));
+        assertEquals(5, indice.contarUltimosDias(90));
+        assertEquals(0, indice.contar(hoy.plusDays(1), hoy.plusYears(1)));
+        assertEquals(0, indice.contar(hoy, hoy.minusDays(1)));
+    }
+
+    @Test
+    void testObtenerProductosPorClavePrimaria() {
+        IndiceFechasIngreso indice = IndiceFechasIngreso.construir();
+        List<ProductoDTO> productos = indice.obtenerProductosUltimosDias(30);
+        assertEquals(List.of("Hace 29 días", "Hace 7 días", "Hace 6 días", "Hoy"),
+                productos.stream().map(ProductoDTO::getNombre).toList());
+        assertNotNull(productos.get(0).getCategoria());
+    }
+
+    @Test
+    void testDesdeDiasIgnoraFechasInvalidasYAgrupaPorShard() {
+        long[] dias = {
+                LocalDate.of(2024, 1, 31).toEpochDay(),
+                LocalDate.of(2024, 2, 1).toEpochDay(),
+                LocalDateTimeUtils.FECHA_INVALIDA,
+                LocalDate.of(2024, 4, 15).toEpochDay(),
+                LocalDate.of(2024, 2, 29).toEpochDay()
+        };
+        IndiceFechasIngreso indice = IndiceFechasIngreso.desdeDias(
+                new int[]{0, 1, 0, 1, 0}, new int[]{10, 20, 30, 40, 50}, dias, dias.length);
+
+        assertEquals(4, indice.getCantidad());
+        assertEquals(2, indice.contar(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 31)));
+        assertEquals(4, indice.contar(LocalDate.of(2023, 1, 1), LocalDate.of(2025, 1, 1)));
+        assertEquals(Map.of(0, List.of(10, 50), 1, List.of(20, 40)),
+                indice.idsPorShardEntre(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+    }
+}
@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.app.utils.LocalDateTimeUtils;
+
+public class LocalDateTimeUtilsTest {
+
+    @Test
+    void testCrearLocalDateDesdeFecha() {
+        assertEquals(LocalDate.of(2024, 2, 29), LocalDateTimeUtils.crearLocalDateDesdeFecha("2024-02-29"));
+        assertNull(LocalDateTimeUtils.crearLocalDateDesdeFecha("2024-13-01"));
+        assertNull(LocalDateTimeUtils.crearLocalDateDesdeFecha("2024-2-29"));
+        assertNull(LocalDateTimeUtils.crearLocalDateDesdeFecha("2024-02-29T00"));
+        assertNull(LocalDateTimeUtils.crearLocalDateDesdeFecha(null));
+    }
+
+    @Test
+    void testParsearEpochDiaCoincideConLocalDate() {
+        LocalDate fecha = LocalDate.of(1900, 1, 1);
+        LocalDate fin = LocalDate.of(2100, 12, 31);
+        while (!fecha.isAfter(fin)) {
+            char[] buf = fecha.toString().toCharArray();
+            assertEquals(fecha.toEpochDay(), LocalDateTimeUtils.parsearEpochDia(buf, 0), fecha.toString());
+            fecha = fecha.plusDays(1);
+        }
+    }
+
+    @Test
+    void testParsearEpochDiaInvalida() {
+        String[] invalidas = {"2023-02-29", "2024-13-01", "2024-00-10", "2024-04-31", "2024/01/01", "2024-1a-01", "2024-01-0"};
+        for (String invalida : invalidas) {
+            assertEquals(LocalDateTimeUtils.FECHA_INVALIDA,
+                    LocalDateTimeUtils.parsearEpochDia(invalida.toCharArray(), 0), invalida);
+        }
+        assertEquals(LocalDateTimeUtils.FECHA_INVALIDA,
+                LocalDateTimeUtils.parsearEpochDia("2024-01-01".toCharArray(), -1));
+    }
+
+    @Test
+    void testFechaInexistenteEsInvalidaEnTodosLosMetodos() {
+        assertEquals(LocalDateTimeUtils.FECHA_INVALIDA, LocalDateTimeUtils.parsearEpochDia("2023-02-30".toCharArray(), 0));
+        assertNull(LocalDateTimeUtils.crearLocalDateDesdeFecha("2023-02-30"));
+        assertNull(LocalDateTimeUtils.crearLocalDateTimeDesdeFecha("2023-02-30"));
+        assertNull(LocalDateTimeUtils.crearLocalDateTimeDesdeFechaYHora("2023-02-30", "10:00:00"));
+        assertNull(LocalDateTimeUtils.crearLocalDateTimeDesdeFechaYHora("2023-02-28", "24:00:00"));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), LocalDateTimeUtils.crearLocalDateTimeDesdeFecha("2024-02-29"));
+    }
+
+    @Test
+    void testParsearSegundosDelDia() {
+        assertEquals(0, LocalDateTimeUtils.parsearSegundosDelDia("00:00:00".toCharArray(), 0));
+        assertEquals(86399, LocalDateTimeUtils.parsearSegundosDelDia("23:59:59".getBytes(StandardCharsets.US_ASCII), 0));
+        assertEquals(LocalDateTimeUtils.HORA_INVALIDA, LocalDateTimeUtils.parsearSegundosDelDia("24:00:00".toCharArray(), 0));
+        assertEquals(LocalDateTimeUtils.HORA_INVALIDA, LocalDateTimeUtils.parsearSegundosDelDia("12-30-00".toCharArray(), 0));
+    }
+
+    @Test
+    void testParsearEpochSegundosEnBloque() {
+        byte[] buf = "2024-02-29 13:45:10\n2024-02-30 10:00:00\n1970-01-01 00:00:01\n".getBytes(StandardCharsets.US_ASCII);
+        int[] offsetsFecha = {0, 20, 40};
+        int[] offsetsHora = {11, 31, 51};
+        long[] destino = new long[3];
+
+        int errores = LocalDateTimeUtils.parsearEpochSegundos(buf, offsetsFecha, offsetsHora, 3, destino);
+
+        assertEquals(1, errores);
+        assertEquals(LocalDateTime.of(2024, 2, 29, 13, 45, 10).toEpochSecond(ZoneOffset.UTC), destino[0]);
+        assertEquals(LocalDateTimeUtils.FECHA_INVALIDA, destino[1]);
+        assertEquals(1L, destino[2]);
+    }
+}
@@ -2,12 +2,17 @@ import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.*;
+import java.time.LocalDate;
 import java.math.BigDecimal;
 import org.app.services.Logica;
 import org.app.models.Producto;
 import org.app.models.Categoria;
 import org.app.dto.ProductoDTO;
+import org.app.dto.CategoriaResumenDTO;
+import org.app.dto.FiltroBusquedaDTO;
+import org.app.dto.ResultadoBusquedaDTO;
 import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
 import org.app.utils.HibernateUtil;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -45,21 +50,21 @@ public class LogicaTest {
         producto1.setNombre("Laptop");
         producto1.setPrecio(new BigDecimal("999.99"));
         producto1.setStock(10);
-        producto1.setFechaIngreso(new Date());
+        producto1.setFechaIngreso(LocalDate.now());
         producto1.setCategoria(categoria1);
 
         producto2 = new Producto();
         producto2.setNombre("Smartphone");
         producto2.setPrecio(new BigDecimal("499.99"));
         producto2.setStock(15);
-        producto2.setFechaIngreso(new Date());
+        producto2.setFechaIngreso(LocalDate.now());
         producto2.setCategoria(categoria1);
 
         producto3 = new Producto();
         producto3.setNombre("Camiseta");
         producto3.setPrecio(new BigDecimal("29.99"));
         producto3.setStock(50);
-        producto3.setFechaIngreso(new Date());
+        producto3.setFechaIngreso(LocalDate.now());
         producto3.setCategoria(categoria2);
 
         session.persist(producto1);
@@ -136,8 +141,8 @@ public class LogicaTest {
 
     @Test
     void testObtenerProductosPorRangoFechas() {
-        Date fechaInicio = new Date(System.currentTimeMillis() - 86400000); // Yesterday
-        Date fechaFin = new Date(System.currentTimeMillis() + 86400000);    // Tomorrow
+        LocalDate fechaInicio = LocalDate.now().minusDays(1); // Yesterday
+        LocalDate fechaFin = LocalDate.now().plusDays(1);    // Tomorrow
         
         List<ProductoDTO> productos = logica.obtenerProductosPorRangoFechas(fechaInicio, fechaFin);
         assertNotNull(productos);
@@ -187,4 +192,100 @@ public class LogicaTest {
         assertTrue(productos.stream().allMatch(p -> p.getStock() < 20 && 
                                                   p.getCategoria().getNombre().equals("Electrónicos")));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testObtenerTopProductosPorCategoria() {
+        List<ProductoDTO> productos = logica.obtenerTopProductosPorCategoria(1);
+        assertNotNull(productos);
+        assertEquals(2, productos.size());
+        assertEquals("Laptop", productos.get(0).getNombre());
+        assertEquals("Camiseta", productos.get(1).getNombre());
+
+        List<ProductoDTO> todos = logica.obtenerTopProductosPorCategoria(10);
+        assertEquals(3, todos.size());
+        assertEquals("Smartphone", todos.get(1).getNombre());
+
+        assertThrows(IllegalArgumentException.class, () -> logica.obtenerTopProductosPorCategoria(0));
+    }
+
+    @Test
+    void testObtenerCategoriasConCantidadProductos() {
+        List<CategoriaResumenDTO> categorias = logica.obtenerCategoriasConCantidadProductos(1);
+        assertNotNull(categorias);
+        assertEquals(2, categorias.size());
+
+        CategoriaResumenDTO electronicos = categorias.get(0);
+        assertEquals("Electrónicos", electronicos.getNombre());
+        assertEquals(2, electronicos.getCantidadProductos());
+        assertEquals(1, electronicos.getProductos().size());
+        assertEquals("Laptop", electronicos.getProductos().get(0).getNombre());
+
+        CategoriaResumenDTO ropa = categorias.get(1);
+        assertEquals(1, ropa.getCantidadProductos());
+        assertEquals("Camiseta", ropa.getProductos().get(0).getNombre());
+
+        assertTrue(logica.obtenerCategoriasConCantidadProductos(0).stream()
+                         .allMatch(c -> c.getProductos().isEmpty()));
+    }
+
+    @Test
+    void testCategoriasConCantidadProductosUsaConsultasFijas() {
+        Statistics estadisticas;
+        try (Session session = HibernateUtil.getSession()) {
+            estadisticas = session.getSessionFactory().getStatistics();
+        }
+        estadisticas.setStatisticsEnabled(true);
+        try {
+            // La cantidad de sentencias no depende de cuántas categorías haya
+            estadisticas.clear();
+            logica.obtenerCategoriasConCantidadProductos(0);
+            assertEquals(1, estadisticas.getPrepareStatementCount());
+
+            estadisticas.clear();
+            logica.obtenerCategoriasConCantidadProductos(2);
+            assertEquals(2, estadisticas.getPrepareStatementCount());
+
+            // Con FetchMode.SUBSELECT las colecciones de todas las categorías se cargan juntas
+            estadisticas.clear();
+            try (Session lectura = HibernateUtil.getSession()) {
+                List<Categoria> categorias = lectura.createQuery("from Categoria", Categoria.class).getResultList();
+                int productos = 0;
+                for (Categoria categoria : categorias) {
+                    productos += categoria.getProductos().size();
+                }
+                assertEquals(3, productos);
+            }
+            assertEquals(2, estadisticas.getPrepareStatementCount());
+        } finally {
+            estadisticas.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void testBuscarProductosConFacetas() {
+        ResultadoBusquedaDTO resultado = logica.buscarProductosConFacetas(new FiltroBusquedaDTO(), 0, 2);
+        assertNotNull(resultado);
+        assertEquals(3, resultado.getTotal());
+        assertEquals(2, resultado.getProductos().size());
+        assertEquals(2L, resultado.getPorCategoria().get("Electrónicos"));
+        assertEquals(1L, resultado.getPorCategoria().get("Ropa"));
+        assertEquals(1L, resultado.getPorRangoPrecio().get("< 50"));
+        assertEquals(1L, resultado.getPorRangoPrecio().get("100 - 500"));
+        assertEquals(1L, resultado.getPorRangoPrecio().get("500 - 1000"));
+        assertEquals(0L, resultado.getPorRangoPrecio().get(">= 1000"));
+        assertEquals(2L, resultado.getPorRangoStock().get("10 - 49"));
+        assertEquals(1L, resultado.getPorRangoStock().get(">= 50"));
+        assertEquals(3L, resultado.getPorMesIngreso().values().stream().mapToLong(Long::longValue).sum());
+
+        ResultadoBusquedaDTO segundaPagina = logica.buscarProductosConFacetas(new FiltroBusquedaDTO(), 1, 2);
+        assertEquals(1, segundaPagina.getProductos().size());
+
+        FiltroBusquedaDTO filtro = new FiltroBusquedaDTO();
+        filtro.setCategoria("Electrónicos");
+        filtro.setPrecioMinimo(new BigDecimal("400.00"));
+        ResultadoBusquedaDTO filtrado = logica.buscarProductosConFacetas(filtro, 0, 10);
+        assertEquals(2, filtrado.getTotal());
+        assertEquals(2, filtrado.getProductos().size());
+        assertEquals(1, filtrado.getPorCategoria().size());
+    }
+}
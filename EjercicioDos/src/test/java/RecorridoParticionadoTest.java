@@ -0,0 +1,107 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.app.services.RecorridoParticionado;
+import org.app.models.Producto;
+import org.app.models.Categoria;
+import org.app.utils.EstrategiaShard;
+import org.app.utils.HibernateUtil;
+import org.hibernate.Session;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RecorridoParticionadoTest {
+
+    private static final int PRODUCTOS = 250;
+
+    @BeforeAll
+    void setUp() {
+        // Dos shards propios para no interferir con los datos de LogicaTest
+        HibernateUtil.configurarShards(EstrategiaShard.porHash(),
+                "jdbc:h2:mem:recorrido0;DB_CLOSE_DELAY=-1",
+                "jdbc:h2:mem:recorrido1;DB_CLOSE_DELAY=-1");
+
+        List<Categoria> categorias = new ArrayList<>();
+        for (int shard = 0; shard < HibernateUtil.getCantidadShards(); shard++) {
+            try (Session session = HibernateUtil.getSession(shard)) {
+                session.beginTransaction();
+                categorias.clear();
+                for (String nombre : new String[]{"Electrónicos", "Ropa"}) {
+                    Categoria categoria = new Categoria(nombre);
+                    session.persist(categoria);
+                    categorias.add(categoria);
+                }
+                session.getTransaction().commit();
+            }
+        }
+        for (int i = 0; i < PRODUCTOS; i++) {
+            Categoria categoria = categorias.get(i % 2);
+            try (Session session = HibernateUtil.getSession(HibernateUtil.getShardDeCategoria(categoria.getId()))) {
+                session.beginTransaction();
+                session.persist(new Producto("Producto " + i, categoria, new BigDecimal("10.00"), 1, LocalDate.now()));
+                session.getTransaction().commit();
+            }
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        HibernateUtil.restablecerShards();
+    }
+
+    @Test
+    void testRecorreTodoElCatalogoEnParalelo() {
+        List<RecorridoParticionado.Progreso> avisos = Collections.synchronizedList(new ArrayList<>());
+        RecorridoParticionado recorrido = new RecorridoParticionado(4, 3, 0);
+
+        long stockTotal = recorrido.recorrer(() -> 0L, (total, p) -> total + p.getStock(), Long::sum, avisos::add);
+
+        assertEquals(PRODUCTOS, stockTotal);
+        assertEquals(8, avisos.size());
+        RecorridoParticionado.Progreso ultimo = avisos.stream()
+                .max(Comparator.comparingInt(RecorridoParticionado.Progreso::particionesTerminadas)).orElseThrow();
+        assertEquals(8, ultimo.particionesTotales());
+        assertEquals(PRODUCTOS, avisos.stream().mapToLong(RecorridoParticionado.Progreso::filasProcesadas).max().orElse(0));
+    }
+
+    @Test
+    void testReintentaParticionFallida() {
+        AtomicBoolean fallo = new AtomicBoolean();
+        RecorridoParticionado recorrido = new RecorridoParticionado(2, 2, 1);
+
+        Map<String, Integer> porCategoria = recorrido.recorrer(HashMap::new, (mapa, p) -> {
+            if (fallo.compareAndSet(false, true)) {
+                throw new IllegalStateException("Falla simulada");
+            }
+            mapa.merge(p.getCategoria().getNombre(), 1, Integer::sum);
+            return mapa;
+        }, (a, b) -> {
+            b.forEach((k, v) -> a.merge(k, v, Integer::sum));
+            return a;
+        }, null);
+
+        assertEquals(PRODUCTOS / 2, porCategoria.get("Electrónicos"));
+        assertEquals(PRODUCTOS / 2, porCategoria.get("Ropa"));
+    }
+
+    @Test
+    void testSinReintentosPropagaElError() {
+        RecorridoParticionado recorrido = new RecorridoParticionado(2, 2, 0);
+        assertThrows(IllegalStateException.class, () -> recorrido.recorrer(() -> 0, (a, p) -> {
+            throw new IllegalStateException("Falla simulada");
+        }, Integer::sum, null));
+    }
+
+    @Test
+    void testSesionDeRecorridoUsaUnaConexionPropia() throws Exception {
+        java.sql.Connection conexion;
+        try (Session session = HibernateUtil.getSessionDeRecorrido(0)) {
+            conexion = session.doReturningWork(c -> c);
+            assertEquals(PRODUCTOS / 2, session.createQuery("select count(p) from Producto p", Long.class).getSingleResult());
+        }
+        assertTrue(conexion.isClosed());
+    }
+}
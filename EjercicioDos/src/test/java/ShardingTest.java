@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.time.LocalDate;
+import java.math.BigDecimal;
+import org.app.services.EscriturasCatalogo;
+import org.app.services.Logica;
+import org.app.dto.ProductoDTO;
+import org.app.dto.CategoriaResumenDTO;
+import org.app.dto.FiltroBusquedaDTO;
+import org.app.dto.ResultadoBusquedaDTO;
+import org.app.utils.EstrategiaShard;
+import org.app.utils.HibernateUtil;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ShardingTest {
+
+    private Logica logica;
+
+    @BeforeAll
+    void setUp() {
+        logica = Logica.getInstance();
+        HibernateUtil.configurarShards(EstrategiaShard.porHash(),
+                "jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+                "jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1");
+
+        // Las categorías se replican en todos los shards con los mismos ids; cada producto va al shard de su categoría
+        EscriturasCatalogo escrituras = EscriturasCatalogo.getInstance();
+        Integer electronicos = escrituras.crearCategoria("Electrónicos").getId();
+        Integer ropa = escrituras.crearCategoria("Ropa").getId();
+        Integer hogar = escrituras.crearCategoria("Hogar").getId();
+
+        escrituras.crearProducto("Laptop", electronicos, new BigDecimal("999.99"), 10, LocalDate.now());
+        escrituras.crearProducto("Smartphone", electronicos, new BigDecimal("499.99"), 15, LocalDate.now());
+        escrituras.crearProducto("Tablet", electronicos, new BigDecimal("299.99"), 5, LocalDate.now());
+        escrituras.crearProducto("Camiseta", ropa, new BigDecimal("29.99"), 50, LocalDate.now());
+        escrituras.crearProducto("Campera", ropa, new BigDecimal("89.99"), 3, LocalDate.now());
+        escrituras.crearProducto("Lámpara", hogar, new BigDecimal("45.00"), 8, LocalDate.now());
+    }
+
+    @AfterAll
+    void tearDown() {
+        HibernateUtil.restablecerShards();
+    }
+
+    @Test
+    void testConsultasGlobalesUnenTodosLosShards() {
+        assertEquals(6, logica.obtenerProductosConCategorias().size());
+        assertEquals(4, logica.obtenerProductosPrecioMayorConCategoria(new BigDecimal("80.00")).size());
+        assertEquals(6, logica.obtenerCategoriasConProductos().size());
+    }
+
+    @Test
+    void testIdsDeProductoUnicosEntreShards() {
+        List<ProductoDTO> productos = logica.obtenerProductosConCategorias();
+        assertEquals(6, productos.stream().map(ProductoDTO::getId).distinct().count());
+        for (ProductoDTO producto : productos) {
+            assertEquals(HibernateUtil.getShardDeCategoria(producto.getCategoria().getId()),
+                    HibernateUtil.getShardDeProducto(producto.getId()), producto.getNombre());
+        }
+    }
+
+    @Test
+    void testConsultaPorCategoriaVaAUnShard() {
+        List<ProductoDTO> productos = logica.obtenerProductosPorNombreYCategoria("Cam", "Ropa");
+        assertEquals(2, productos.size());
+        assertTrue(logica.obtenerProductosStockBajoPorCategoria("Inexistente", 100).isEmpty());
+        assertEquals(1, logica.obtenerProductosStockBajoPorCategoria("Electrónicos", 10).size());
+    }
+
+    @Test
+    void testOrdenYLimiteSeConservan() {
+        List<ProductoDTO> todos = logica.obtenerProductosOrdenadosPorCategoriaYPrecio();
+        assertEquals(6, todos.size());
+        assertEquals(List.of("Laptop", "Smartphone", "Tablet", "Lámpara", "Campera", "Camiseta"),
+                todos.stream().map(ProductoDTO::getNombre).toList());
+
+        List<ProductoDTO> primeros = logica.obtenerProductosOrdenadosPorCategoriaYPrecio(4);
+        assertEquals(todos.subList(0, 4).stream().map(ProductoDTO::getId).toList(),
+                primeros.stream().map(ProductoDTO::getId).toList());
+
+        List<ProductoDTO> top = logica.obtenerTopProductosPorCategoria(1);
+        assertEquals(List.of("Laptop", "Lámpara", "Campera"), top.stream().map(ProductoDTO::getNombre).toList());
+    }
+
+    @Test
+    void testPromedioGlobal() {
+        // Promedio de los seis productos: 327.49
+        List<ProductoDTO> productos = logica.obtenerProductosPrecioMayorPromedio();
+        assertEquals(2, productos.size());
+    }
+
+    @Test
+    void testResumenSumaCantidadesDeTodosLosShards() {
+        List<CategoriaResumenDTO> categorias = logica.obtenerCategoriasConCantidadProductos(2);
+        assertEquals(3, categorias.size());
+        Map<String, Long> cantidades = new HashMap<>();
+        categorias.forEach(c -> cantidades.put(c.getNombre(), c.getCantidadProductos()));
+        assertEquals(Map.of("Electrónicos", 3L, "Ropa", 2L, "Hogar", 1L), cantidades);
+        assertTrue(categorias.stream().allMatch(c -> c.getProductos().size() <= 2));
+    }
+
+    @Test
+    void testBusquedaConFacetasEnVariosShards() {
+        ResultadoBusquedaDTO primera = logica.buscarProductosConFacetas(new FiltroBusquedaDTO(), 0, 4);
+        ResultadoBusquedaDTO segunda = logica.buscarProductosConFacetas(new FiltroBusquedaDTO(), 1, 4);
+        assertEquals(6, primera.getTotal());
+        assertEquals(4, primera.getProductos().size());
+        assertEquals(2, segunda.getProductos().size());
+        assertEquals(3L, primera.getPorCategoria().get("Electrónicos"));
+        assertEquals(3L, primera.getPorRangoStock().get("1 - 9"));
+    }
+
+    @Test
+    void testEstrategiaPorRango() {
+        EstrategiaShard estrategia = EstrategiaShard.porRango(100, 200);
+        assertEquals(0, estrategia.shardPara(1, 3));
+        assertEquals(1, estrategia.shardPara(100, 3));
+        assertEquals(2, estrategia.shardPara(500, 3));
+        assertEquals(1, estrategia.shardPara(500, 2));
+    }
+}
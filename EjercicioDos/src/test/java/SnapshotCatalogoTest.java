@@ -0,0 +1,168 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import org.app.services.Logica;
+import org.app.services.SnapshotCatalogo;
+import org.app.models.Producto;
+import org.app.models.Categoria;
+import org.app.dto.ProductoDTO;
+import org.app.utils.EstrategiaShard;
+import org.app.utils.HibernateUtil;
+import org.hibernate.Session;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SnapshotCatalogoTest {
+
+    private Logica logica;
+    private Categoria categoria;
+    private Producto laptop;
+    private Producto camiseta;
+
+    @TempDir
+    Path directorio;
+
+    @BeforeAll
+    void setUp() {
+        logica = Logica.getInstance();
+        // Base propia para no interferir con los datos de LogicaTest
+        HibernateUtil.configurarShards(EstrategiaShard.porHash(), "jdbc:h2:mem:snapshot;DB_CLOSE_DELAY=-1");
+
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            categoria = new Categoria("Electrónicos");
+            session.persist(categoria);
+            laptop = new Producto("Laptop", categoria, new BigDecimal("999.99"), 10, LocalDate.now());
+            camiseta = new Producto("Camiseta", null, null, null, null);
+            session.persist(laptop);
+            session.persist(camiseta);
+            session.getTransaction().commit();
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        HibernateUtil.restablecerShards();
+    }
+
+    @Test
+    void testSnapshotSirveLecturasYSePoneAlDia() throws IOException {
+        Path archivo = directorio.resolve("catalogo.bin");
+        SnapshotCatalogo.escribir(archivo, logica);
+
+        SnapshotCatalogo snapshot = SnapshotCatalogo.abrir(archivo);
+        assertNotNull(snapshot.getMarcaAgua());
+        assertEquals(2, snapshot.obtenerProductos().size());
+        assertEquals("Electrónicos", snapshot.obtenerCategoria(categoria.getId()).getNombre());
+
+        ProductoDTO leido = snapshot.obtenerProducto(laptop.getId());
+        assertEquals("Laptop", leido.getNombre());
+        assertEquals(new BigDecimal("999.99"), leido.getPrecio());
+        assertEquals(10, leido.getStock());
+        assertEquals("Electrónicos", leido.getCategoria().getNombre());
+
+        ProductoDTO sinDatos = snapshot.obtenerProducto(camiseta.getId());
+        assertEquals("Camiseta", sinDatos.getNombre());
+        assertNull(sinDatos.getCategoria());
+        assertNull(sinDatos.getPrecio());
+        assertNull(snapshot.obtenerProducto(-1));
+
+        Producto tablet;
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            Producto cambiado = session.get(Producto.class, laptop.getId());
+            cambiado.setPrecio(new BigDecimal("899.99"));
+            tablet = new Producto("Tablet", cambiado.getCategoria(), new BigDecimal("299.99"), 4, LocalDate.now());
+            session.persist(tablet);
+            session.getTransaction().commit();
+        }
+
+        assertTrue(snapshot.ponerseAlDia(logica) >= 2);
+        assertEquals(new BigDecimal("899.99"), snapshot.obtenerProducto(laptop.getId()).getPrecio());
+        assertEquals("Tablet", snapshot.obtenerProducto(tablet.getId()).getNombre());
+        assertEquals(3, snapshot.obtenerProductos().size());
+    }
+
+    @Test
+    void testEscrituraConfirmadaTardeSeReleeDentroDeLaVentana() throws IOException {
+        Path archivo = directorio.resolve("tardio.bin");
+        SnapshotCatalogo.escribir(archivo, logica);
+        SnapshotCatalogo snapshot = SnapshotCatalogo.abrir(archivo);
+
+        // Una transacción que escribió antes de la marca de agua pero confirmó después del snapshot
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("UPDATE Productos SET nombre = 'Remera', fecha_modificacion = :fecha WHERE id = :id")
+                   .setParameter("fecha", snapshot.getMarcaAgua().minusMinutes(1))
+                   .setParameter("id", camiseta.getId())
+                   .executeUpdate();
+            session.getTransaction().commit();
+        }
+
+        snapshot.ponerseAlDia(logica, Duration.ZERO);
+        assertEquals("Camiseta", snapshot.obtenerProducto(camiseta.getId()).getNombre());
+        snapshot.ponerseAlDia(logica);
+        assertEquals("Remera", snapshot.obtenerProducto(camiseta.getId()).getNombre());
+
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("UPDATE Productos SET nombre = 'Camiseta' WHERE id = :id")
+                   .setParameter("id", camiseta.getId())
+                   .executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @Test
+    void testProductoBorradoSeQuitaAlPonerseAlDia() throws IOException {
+        Producto mouse = new Producto("Mouse", categoria, new BigDecimal("19.99"), 30, LocalDate.now());
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            session.persist(mouse);
+            session.getTransaction().commit();
+        }
+        Path archivo = directorio.resolve("borrado.bin");
+        SnapshotCatalogo.escribir(archivo, logica);
+        SnapshotCatalogo snapshot = SnapshotCatalogo.abrir(archivo);
+        int antes = snapshot.obtenerProductos().size();
+        assertNotNull(snapshot.obtenerProducto(mouse.getId()));
+
+        // Un DELETE no deja fecha_modificacion que leer
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("DELETE FROM Productos WHERE id = :id")
+                   .setParameter("id", mouse.getId())
+                   .executeUpdate();
+            session.getTransaction().commit();
+        }
+
+        snapshot.ponerseAlDia(logica);
+        assertNull(snapshot.obtenerProducto(mouse.getId()));
+        assertEquals(antes - 1, snapshot.obtenerProductos().size());
+        assertTrue(snapshot.obtenerProductos().stream().noneMatch(p -> p.getId().equals(mouse.getId())));
+    }
+
+    @Test
+    void testSinFechasDeModificacionLaMarcaEsLaHoraDeLaBase() throws IOException {
+        // Filas que existían antes de agregar la columna fecha_modificacion
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("UPDATE Productos SET fecha_modificacion = NULL").executeUpdate();
+            session.getTransaction().commit();
+        }
+        Path archivo = directorio.resolve("sin_fechas.bin");
+        SnapshotCatalogo.escribir(archivo, logica);
+        SnapshotCatalogo snapshot = SnapshotCatalogo.abrir(archivo);
+
+        assertNotNull(snapshot.getMarcaAgua());
+        // Sin cambios no se relee nada
+        assertEquals(0, snapshot.ponerseAlDia(logica));
+        assertEquals(logica.obtenerProductosModificadosDesde(null).size(), snapshot.obtenerProductos().size());
+    }
+}
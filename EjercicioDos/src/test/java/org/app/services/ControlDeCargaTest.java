@@ -0,0 +1,111 @@
+package org.app.services;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.app.utils.DiccionarioCategorias;
+import org.app.utils.HibernateUtil;
+import org.hibernate.Session;
+
+public class ControlDeCargaTest {
+
+    // Producto cartesiano que H2 no puede resolver sin recorrerlo
+    private static final String CONSULTA_LENTA =
+            "select sum(mod(a.x * b.x, 7)) from system_range(1, 100000) a, system_range(1, 100000) b";
+
+    private final Logica logica = Logica.getInstance();
+
+    @Test
+    void testPlazoCancelaLaConsulta() {
+        long inicio = System.nanoTime();
+        assertThrows(PlazoVencidoException.class, () -> logica.conPlazo(Duration.ofMillis(200), () ->
+                ControlDeCarga.ejecutar("consultaLenta", () -> EjecucionEnShards.enShard(0, session ->
+                        session.createNativeQuery(CONSULTA_LENTA, Object.class).getSingleResult()))));
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 2000);
+        assertEquals(1L, logica.obtenerEstadisticas().get("consultaLenta").get(ResultadoConsulta.PLAZO_VENCIDO));
+    }
+
+    @Test
+    void testPlazoCortoLlegaAlDriverComoTimeout() {
+        // Sin cancelQuery: sólo el timeout JDBC puede cortar la consulta, aunque el plazo sea menor a 500 ms
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (Session session = HibernateUtil.getSession(0)) {
+                EjecucionEnShards.aplicarPlazo(session, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200));
+                RuntimeException e = assertThrows(RuntimeException.class, () ->
+                        session.createNativeQuery(CONSULTA_LENTA, Object.class).getSingleResult());
+                assertTrue(e instanceof jakarta.persistence.QueryTimeoutException
+                        || e instanceof org.hibernate.QueryTimeoutException, e.toString());
+            }
+        });
+    }
+
+    @Test
+    void testPlazoInterrumpeElHiloDeLaTarea() throws Exception {
+        CountDownLatch interrumpido = new CountDownLatch(1);
+        assertThrows(PlazoVencidoException.class, () -> logica.conPlazo(Duration.ofMillis(100), () ->
+                EjecucionEnShards.enShard(0, session -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrumpido.countDown();
+                    }
+                    return null;
+                })));
+        assertTrue(interrumpido.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testPlazoAlcanzaLaCargaDelDiccionario() {
+        // Sin pasar por ControlDeCarga.ejecutar: el plazo lo aplica EjecucionEnShards al cargar
+        DiccionarioCategorias.invalidar();
+        assertThrows(PlazoVencidoException.class, () -> logica.conPlazo(Duration.ZERO, () ->
+                DiccionarioCategorias.obtenerIds("Electrónicos")));
+        assertNotNull(DiccionarioCategorias.obtenerIds("Electrónicos"));
+    }
+
+    @Test
+    void testPlazoSuficienteNoAfectaLaConsulta() {
+        List<?> productos = logica.conPlazo(Duration.ofSeconds(30), logica::obtenerTodosProductosConCategorias);
+        assertNotNull(productos);
+    }
+
+    @Test
+    void testLimiteDeConcurrenciaRechaza() throws Exception {
+        logica.limitarConcurrencia("consultaLimitada", 1, Duration.ZERO);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> primera = ejecutor.submit(() -> ControlDeCarga.ejecutar("consultaLimitada", () -> {
+                ocupado.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            ocupado.await();
+
+            assertThrows(ConsultaRechazadaException.class,
+                    () -> ControlDeCarga.ejecutar("consultaLimitada", () -> null));
+
+            liberar.countDown();
+            primera.get();
+            assertNull(ControlDeCarga.ejecutar("consultaLimitada", () -> null));
+
+            assertEquals(1L, logica.obtenerEstadisticas().get("consultaLimitada").get(ResultadoConsulta.RECHAZADA));
+            assertEquals(2L, logica.obtenerEstadisticas().get("consultaLimitada").get(ResultadoConsulta.EXITOSA));
+        } finally {
+            logica.quitarLimiteConcurrencia("consultaLimitada");
+            ejecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.app.utils;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Comparator;
+
+public class DiccionarioCategoriasCollationTest {
+
+    @Test
+    void testCollationSinAcentosNiMayusculas() {
+        Comparator<String> comparador = DiccionarioCategorias.comparadorPara("utf8mb4_0900_ai_ci");
+        assertEquals(0, comparador.compare("Electrónicos", "ELECTRONICOS"));
+        assertEquals(0, comparador.compare("Straße", "strasse"));
+        assertNotEquals(0, comparador.compare("Hogar", "Jardín"));
+    }
+
+    @Test
+    void testCollationConAcentosSinMayusculas() {
+        Comparator<String> comparador = DiccionarioCategorias.comparadorPara("utf8mb4_0900_as_ci");
+        assertEquals(0, comparador.compare("Electrónicos", "ELECTRÓNICOS"));
+        assertNotEquals(0, comparador.compare("Electrónicos", "Electronicos"));
+    }
+
+    @Test
+    void testCollationExacta() {
+        for (String collation : new String[]{"utf8mb4_bin", "utf8mb4_0900_as_cs", null}) {
+            Comparator<String> comparador = DiccionarioCategorias.comparadorPara(collation);
+            assertNotEquals(0, comparador.compare("Hogar", "hogar"), collation);
+            assertNotEquals(0, comparador.compare("Electrónicos", "Electronicos"), collation);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.app.utils;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.app.models.Categoria;
+import org.app.models.Producto;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+public class GeneradorIdProductoTest {
+
+    @AfterEach
+    void tearDown() {
+        HibernateUtil.restablecerShards();
+    }
+
+    private Integer persistir(Categoria categoria) {
+        try (Session session = HibernateUtil.getSession(0)) {
+            session.beginTransaction();
+            Producto producto = new Producto("Nuevo", session.merge(categoria), new BigDecimal("1.00"), 1, LocalDate.now());
+            session.persist(producto);
+            session.getTransaction().commit();
+            return producto.getId();
+        }
+    }
+
+    @Test
+    void testSecuenciaArrancaPorEncimaDeLosIdsExistentes() {
+        HibernateUtil.configurarShards(EstrategiaShard.porHash(), "jdbc:h2:mem:secuencia");
+        Categoria categoria = new Categoria("Hogar");
+        SessionFactory fabrica;
+        try (Session session = HibernateUtil.getSession(0)) {
+            fabrica = session.getSessionFactory();
+            session.beginTransaction();
+            session.persist(categoria);
+            // Filas que la base ya tenía cuando los ids salían de IDENTITY
+            session.createNativeMutationQuery("INSERT INTO Productos (id, nombre, categoria_id) VALUES (1000, 'Viejo', :categoria)")
+                   .setParameter("categoria", categoria.getId())
+                   .executeUpdate();
+            session.getTransaction().commit();
+        }
+
+        GeneradorIdProducto.sembrar(List.of(fabrica));
+        Integer primero = persistir(categoria);
+        assertTrue(primero > 1000, "id " + primero);
+
+        // Volver a sembrar no hace retroceder la secuencia
+        GeneradorIdProducto.sembrar(List.of(fabrica));
+        Integer segundo = persistir(categoria);
+        assertTrue(segundo > primero, "id " + segundo);
+    }
+}
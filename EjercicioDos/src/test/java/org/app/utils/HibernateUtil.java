@@ -6,12 +6,14 @@ import org.hibernate.cfg.Configuration;
 
 public class HibernateUtil {
     private static final SessionFactory sessionFactory;
+    private static final RegistroShards shards;
 
     static {
         try {
             Configuration configuration = new Configuration();
             configuration.configure("hibernate-test.cfg.xml");
             sessionFactory = configuration.buildSessionFactory();
+            shards = new RegistroShards("hibernate-test.cfg.xml", sessionFactory);
         } catch (Throwable ex) {
             System.err.println("Initial SessionFactory creation failed." + ex);
             throw new ExceptionInInitializerError(ex);
@@ -22,7 +24,44 @@ public class HibernateUtil {
         return sessionFactory.openSession();
     }
 
+    public static void configurarShards(EstrategiaShard estrategia, String... urls) {
+        shards.configurar(estrategia, urls);
+    }
+
+    public static void restablecerShards() {
+        shards.restablecer();
+    }
+
+    public static int getCantidadShards() {
+        return shards.cantidad();
+    }
+
+    public static long getGeneracionShards() {
+        return shards.generacion();
+    }
+
+    public static Session getSession(int shard) {
+        return shards.abrir(shard);
+    }
+
+    public static Session getSessionDeRecorrido(int shard) {
+        return shards.abrirParaRecorrido(shard);
+    }
+
+    public static int getShardDeCategoria(Integer categoriaId) {
+        return shards.shardDeCategoria(categoriaId);
+    }
+
+    public static int getShardDeProducto(Integer productoId) {
+        return shards.shardDeProducto(productoId);
+    }
+
+    public static int getShardDeFabrica(SessionFactory fabrica) {
+        return shards.shardDeFabrica(fabrica);
+    }
+
     public static void shutdown() {
+        shards.cerrar();
         sessionFactory.close();
     }
 } 
\ No newline at end of file